@@ -11,6 +11,8 @@ repositories {
 
 dependencies {
     implementation("jakarta.inject:jakarta.inject-api:2.0.1")
+    implementation("jakarta.annotation:jakarta.annotation-api:2.1.1")
+    implementation("net.bytebuddy:byte-buddy:1.14.18")
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.2")
     testImplementation("org.junit.jupiter:junit-jupiter-params:5.8.2")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.8.2")
@@ -22,4 +24,64 @@ dependencies {
 
 tasks.getByName<Test>("test") {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+sourceSets {
+    create("benchmark") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations["benchmarkImplementation"].extendsFrom(configurations.implementation.get())
+
+dependencies {
+    "benchmarkImplementation"("jakarta.inject:jakarta.inject-tck:2.0.1")
+}
+
+tasks.register<JavaExec>("benchmark") {
+    group = "verification"
+    description = "Measures Context.get throughput from 1 to N threads."
+    classpath = sourceSets["benchmark"].runtimeClasspath
+    mainClass.set("geektime.tdd.di.ContextThroughputBenchmark")
+}
+
+tasks.register<JavaExec>("tckBenchmark") {
+    group = "verification"
+    description = "Measures construction throughput and latency of the jakarta.inject TCK Car graph."
+    classpath = sourceSets["benchmark"].runtimeClasspath
+    mainClass.set("geektime.tdd.di.TckCarBenchmark")
+}
+
+val benchmarkJar = tasks.register<Jar>("benchmarkJar") {
+    archiveClassifier.set("benchmark")
+    from(sourceSets.main.get().output, sourceSets["benchmark"].output)
+}
+
+val cdsArchive = layout.buildDirectory.file("cds/context.jsa")
+
+tasks.register<JavaExec>("cdsArchive") {
+    group = "build"
+    description = "Trains the TCK Car context and dumps its loaded classes as a class list and AppCDS archive."
+    classpath = files(benchmarkJar) + configurations["benchmarkRuntimeClasspath"]
+    mainClass.set("geektime.tdd.di.ColdStartBenchmark")
+    args("application")
+    outputs.file(cdsArchive)
+    doFirst {
+        cdsArchive.get().asFile.parentFile.mkdirs()
+        jvmArgs("-Dgeektime.tdd.di.training=true", "-Xlog:cds=error",
+                "-XX:ArchiveClassesAtExit=${cdsArchive.get().asFile}",
+                "-XX:DumpLoadedClassList=${cdsArchive.get().asFile.resolveSibling("context.classlist")}")
+    }
+}
+
+tasks.register<JavaExec>("coldStartBenchmark") {
+    group = "verification"
+    description = "Compares time to first get in forked JVMs with and without the AppCDS archive."
+    dependsOn("cdsArchive")
+    classpath = files(benchmarkJar) + configurations["benchmarkRuntimeClasspath"]
+    mainClass.set("geektime.tdd.di.ColdStartBenchmark")
+    doFirst {
+        args(cdsArchive.get().asFile.toString(), "10")
+    }
+}
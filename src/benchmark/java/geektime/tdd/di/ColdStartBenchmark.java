@@ -0,0 +1,73 @@
+package geektime.tdd.di;
+
+import org.atinject.tck.auto.Car;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ColdStartBenchmark {
+    private static final String APPLICATION = "application";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals(APPLICATION)) {
+            application();
+            return;
+        }
+        Path archive = Path.of(args.length > 0 ? args[0] : "build/cds/context.jsa");
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        if (!Files.exists(archive)) {
+            Files.createDirectories(archive.toAbsolutePath().getParent());
+            fork("-Dgeektime.tdd.di.training=true", "-XX:ArchiveClassesAtExit=" + archive);
+        }
+        if (!Files.exists(archive)) throw new IllegalStateException("archive not created: " + archive);
+
+        long[][] without = new long[2][runs];
+        long[][] with = new long[2][runs];
+        for (int i = 0; i < runs; i++) {
+            long[] baseline = fork("-Xshare:auto");
+            long[] archived = fork("-XX:SharedArchiveFile=" + archive);
+            without[0][i] = baseline[0];
+            without[1][i] = baseline[1];
+            with[0][i] = archived[0];
+            with[1][i] = archived[1];
+        }
+        System.out.printf("%-20s %22s %22s%n", "scenario", "first get p50 us", "process p50 ms");
+        report("default CDS", without);
+        report("AppCDS archive", with);
+    }
+
+    private static void application() {
+        long start = System.nanoTime();
+        Context context = TckCarBenchmark.car().getContext();
+        if (context.get(ComponentRef.of(Car.class)).isEmpty()) throw new IllegalStateException();
+        System.out.println(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+
+    private static long[] fork(String... options) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(options));
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), ColdStartBenchmark.class.getName(), APPLICATION));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String firstGet;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            firstGet = output.readLine();
+        }
+        if (process.waitFor() != 0 || firstGet == null) throw new IllegalStateException("forked run failed: " + command);
+        return new long[]{Long.parseLong(firstGet.trim()), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)};
+    }
+
+    private static void report(String scenario, long[][] samples) {
+        Arrays.sort(samples[0]);
+        Arrays.sort(samples[1]);
+        System.out.printf("%-20s %22d %22d%n", scenario, samples[0][samples[0].length / 2], samples[1][samples[1].length / 2]);
+    }
+}
@@ -0,0 +1,100 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class ContextThroughputBenchmark {
+    private static final long WARMUP_MILLIS = 500;
+    private static final long MEASURE_MILLIS = 1000;
+
+    @Singleton
+    public static class Repository {
+    }
+
+    public static class Service {
+        @Inject
+        Repository repository;
+    }
+
+    public static class Handler {
+        @Inject
+        public Handler(Service service) {
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        ContextConfig config = new ContextConfig();
+        config.bind(Repository.class, Repository.class);
+        config.bind(Service.class, Service.class);
+        config.bind(Handler.class, Handler.class);
+        Context context = config.getContext();
+        Binding<Handler> handler = context.handle(ComponentRef.of(Handler.class)).get();
+
+        ContextConfig compiledConfig = new ContextConfig();
+        compiledConfig.bind(Repository.class, Repository.class);
+        compiledConfig.bind(Service.class, Service.class);
+        compiledConfig.bind(Handler.class, Handler.class);
+        compiledConfig.compilePrototypeGraphs(16);
+        Binding<Handler> compiledHandler = compiledConfig.getContext().handle(ComponentRef.of(Handler.class)).get();
+
+        System.out.printf("%-24s %8s %16s %10s%n", "scenario", "threads", "ops/s", "scaling");
+        run("singleton get", cores, () -> context.get(ComponentRef.of(Repository.class)).get());
+        run("prototype graph get", cores, () -> context.get(ComponentRef.of(Handler.class)).get());
+        run("prototype graph handle", cores, handler::get);
+        run("compiled graph handle", cores, compiledHandler::get);
+    }
+
+    private static void run(String scenario, int cores, Supplier<?> action) throws InterruptedException {
+        double single = 0;
+        for (int threads : threadCounts(cores)) {
+            measure(threads, WARMUP_MILLIS, action);
+            double throughput = measure(threads, MEASURE_MILLIS, action);
+            if (threads == 1) single = throughput;
+            System.out.printf("%-24s %8d %16.0f %9.2fx%n", scenario, threads, throughput, throughput / single);
+        }
+    }
+
+    private static List<Integer> threadCounts(int cores) {
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) counts.add(threads);
+        counts.add(cores);
+        return counts;
+    }
+
+    private static double measure(int threads, long millis, Supplier<?> action) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    long count = 0;
+                    while (System.nanoTime() < deadline[0]) {
+                        if (action.get() == null) throw new IllegalStateException();
+                        count++;
+                    }
+                    operations.add(count);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        deadline[0] = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        start.countDown();
+        done.await();
+        return operations.sum() * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,92 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Named;
+import org.atinject.tck.auto.*;
+import org.atinject.tck.auto.accessories.Cupholder;
+import org.atinject.tck.auto.accessories.SpareTire;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class TckCarBenchmark {
+    private static final long WARMUP_MILLIS = 1000;
+    private static final long MEASURE_MILLIS = 2000;
+
+    record DriversLiteral() implements Drivers {
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Drivers.class;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Drivers;
+        }
+    }
+
+    record NamedLiteral(String value) implements Named {
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Named.class;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Named named && value.equals(named.value());
+        }
+
+        @Override
+        public int hashCode() {
+            return "value".hashCode() * 127 ^ value.hashCode();
+        }
+    }
+
+    static ContextConfig car() {
+        ContextConfig config = new ContextConfig();
+        config.bind(Car.class, Convertible.class);
+        config.bind(Seat.class, Seat.class);
+        config.bind(Seat.class, DriversSeat.class, new DriversLiteral());
+        config.bind(Tire.class, Tire.class);
+        config.bind(Tire.class, SpareTire.class, new NamedLiteral("spare"));
+        config.bind(Engine.class, V8Engine.class);
+        config.bind(SpareTire.class, SpareTire.class);
+        config.bind(Cupholder.class, Cupholder.class);
+        config.bind(FuelTank.class, FuelTank.class);
+        config.bind(Seatbelt.class, Seatbelt.class);
+        return config;
+    }
+
+    public static void main(String[] args) {
+        Binding<Car> reflective = car().getContext().handle(ComponentRef.of(Car.class)).get();
+        ContextConfig compiledConfig = car();
+        compiledConfig.compilePrototypeGraphs(64);
+        Binding<Car> compiled = compiledConfig.getContext().handle(ComponentRef.of(Car.class)).get();
+
+        System.out.printf("%-20s %14s %10s %10s %10s%n", "scenario", "cars/s", "p50 ns", "p99 ns", "max ns");
+        run("reflective car", reflective);
+        run("compiled car", compiled);
+    }
+
+    private static void run(String scenario, Binding<Car> car) {
+        measure(WARMUP_MILLIS, car);
+        long[] latencies = measure(MEASURE_MILLIS, car);
+        Arrays.sort(latencies);
+        System.out.printf("%-20s %14.0f %10d %10d %10d%n", scenario, latencies.length * 1000.0 / MEASURE_MILLIS,
+                latencies[latencies.length / 2], latencies[(int) (latencies.length * 0.99)], latencies[latencies.length - 1]);
+    }
+
+    private static long[] measure(long millis, Binding<Car> car) {
+        long[] latencies = new long[1 << 16];
+        int count = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        for (long start = System.nanoTime(); start < deadline; ) {
+            if (car.get() == null) throw new IllegalStateException();
+            long end = System.nanoTime();
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = end - start;
+            start = end;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+}
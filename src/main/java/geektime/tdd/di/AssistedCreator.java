@@ -0,0 +1,32 @@
+package geektime.tdd.di;
+
+import net.bytebuddy.implementation.bind.annotation.AllArguments;
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
+
+import java.lang.invoke.MethodHandle;
+
+public final class AssistedCreator {
+    private final MethodHandle constructor;
+    private final int[] assisted;
+    private final Binding<?>[] dependencies;
+    private final MethodHandle injector;
+    private final Binding<?>[] members;
+
+    AssistedCreator(MethodHandle constructor, int[] assisted, Binding<?>[] dependencies, MethodHandle injector, Binding<?>[] members) {
+        this.constructor = constructor;
+        this.assisted = assisted;
+        this.dependencies = dependencies;
+        this.injector = injector;
+        this.members = members;
+    }
+
+    @RuntimeType
+    public Object create(@AllArguments Object[] arguments) throws Throwable {
+        Object[] parameters = new Object[assisted.length];
+        for (int i = 0; i < parameters.length; i++)
+            parameters[i] = assisted[i] >= 0 ? arguments[assisted[i]] : dependencies[i].get();
+        Object instance = constructor.invokeExact(parameters);
+        injector.invokeExact(instance, (Binding<?>[]) members);
+        return instance;
+    }
+}
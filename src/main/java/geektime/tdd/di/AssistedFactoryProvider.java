@@ -0,0 +1,184 @@
+package geektime.tdd.di;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.FieldManifestation;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.FieldAccessor;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.MethodDelegation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Arrays.stream;
+import static net.bytebuddy.matcher.ElementMatchers.is;
+
+class AssistedFactoryProvider<F> implements ContextConfig.ComponentProvider<F> {
+    private static final AtomicInteger generated = new AtomicInteger();
+    private static final MethodHandle BINDING_GET;
+    private static final MethodHandle BINDING_AT = MethodHandles.arrayElementGetter(Binding[].class);
+
+    static {
+        try {
+            BINDING_GET = MethodHandles.publicLookup().findVirtual(Binding.class, "get", methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private InjectionProvider<?> injection;
+    private int[] assisted;
+    private Constructor<? extends F> factory;
+    private ComponentRef<?>[] injected;
+    private MethodHandle injector;
+    private volatile MethodHandle instantiate;
+
+    public AssistedFactoryProvider(Class<F> factory, Class<?> implementation) {
+        if (!factory.isInterface()) throw new IllegalComponentException();
+        List<Method> creators = stream(factory.getMethods()).filter(m -> Modifier.isAbstract(m.getModifiers())).toList();
+        if (creators.size() != 1 || !creators.get(0).getReturnType().isAssignableFrom(implementation))
+            throw new IllegalComponentException();
+        Method create = creators.get(0);
+        this.injection = new InjectionProvider<>(implementation);
+        this.assisted = assistedArguments(injection.injectConstructor().element(), create);
+        if (injection.injectMethods().stream().flatMap(m -> stream(m.element().getParameters())).anyMatch(p -> p.isAnnotationPresent(Assisted.class)))
+            throw new IllegalComponentException();
+        this.factory = generate(factory, create);
+        this.injected = injection.injectMembers().stream().map(InjectionProvider.Injectable::required).flatMap(Arrays::stream)
+                .toArray(ComponentRef<?>[]::new);
+        try {
+            this.injector = injector();
+            this.instantiate = instantiate();
+        } catch (IllegalAccessException e) {
+            throw new IllegalComponentException();
+        }
+    }
+
+    private static int[] assistedArguments(Constructor<?> constructor, Method create) {
+        Parameter[] parameters = constructor.getParameters();
+        int[] assisted = new int[parameters.length];
+        int argument = 0;
+        for (int i = 0; i < parameters.length; i++) {
+            if (!parameters[i].isAnnotationPresent(Assisted.class)) {
+                assisted[i] = -1;
+                continue;
+            }
+            if (argument >= create.getParameterCount() || create.getParameterTypes()[argument] != parameters[i].getType())
+                throw new IllegalComponentException();
+            assisted[i] = argument++;
+        }
+        if (argument != create.getParameterCount()) throw new IllegalComponentException();
+        return assisted;
+    }
+
+    private static <F> Constructor<? extends F> generate(Class<F> factory, Method create) {
+        try {
+            Class<? extends F> generated = (Class<? extends F>) new ByteBuddy()
+                    .subclass(Object.class, ConstructorStrategy.Default.NO_CONSTRUCTORS).implement(factory)
+                    .name(factory.getName() + "$$Factory$" + AssistedFactoryProvider.generated.incrementAndGet())
+                    .defineField("creator", AssistedCreator.class, Visibility.PRIVATE, FieldManifestation.FINAL)
+                    .defineConstructor(Visibility.PUBLIC).withParameters(AssistedCreator.class)
+                    .intercept(MethodCall.invoke(Object.class.getConstructor()).andThen(FieldAccessor.ofField("creator").setsArgumentAt(0)))
+                    .method(is(create)).intercept(MethodDelegation.toField("creator"))
+                    .make().load(factory.getClassLoader(), ClassLoadingStrategy.UsingLookup.of(MethodHandles.privateLookupIn(factory, MethodHandles.lookup())))
+                    .getLoaded();
+            Constructor<? extends F> constructor = generated.getConstructor(AssistedCreator.class);
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException | IllegalAccessException | IllegalArgumentException | IllegalStateException e) {
+            throw new IllegalComponentException();
+        }
+    }
+
+    @Override
+    public F get(Context context) {
+        try {
+            ComponentRef<?>[] required = injection.injectConstructor().required();
+            Binding<?>[] dependencies = new Binding<?>[assisted.length];
+            for (int i = 0; i < assisted.length; i++)
+                if (assisted[i] < 0) dependencies[i] = bindingOf(context, required[i]);
+            Binding<?>[] members = new Binding<?>[injected.length];
+            for (int i = 0; i < injected.length; i++) members[i] = bindingOf(context, injected[i]);
+            return factory.newInstance(new AssistedCreator(instantiate, assisted, dependencies, injector, members));
+        } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private MethodHandle instantiate() throws IllegalAccessException {
+        Constructor<?> instantiation = injection.instantiation();
+        instantiation.setAccessible(true);
+        return MethodHandles.lookup().unreflectConstructor(instantiation)
+                .asSpreader(Object[].class, assisted.length).asType(methodType(Object.class, Object[].class));
+    }
+
+    private MethodHandle injector() throws IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<MethodHandle> steps = new ArrayList<>();
+        int binding = 0;
+        for (InjectionProvider.Injectable<?> member : injection.injectMembers()) {
+            MethodHandle target;
+            if (member.element() instanceof Field field) target = lookup.unreflectSetter(field);
+            else {
+                MethodHandle invoker = lookup.unreflect((Method) member.element());
+                target = invoker.asType(invoker.type().changeReturnType(void.class));
+            }
+            steps.add(supply(target, binding, member.required().length));
+            binding += member.required().length;
+        }
+        for (Method postConstruct : injection.postConstructs()) {
+            MethodHandle invoker = lookup.unreflect(postConstruct);
+            steps.add(MethodHandles.dropArguments(invoker.asType(methodType(void.class, Object.class)), 1, Binding[].class));
+        }
+        MethodHandle injector = MethodHandles.empty(methodType(void.class, Object.class, Binding[].class));
+        for (int i = steps.size() - 1; i >= 0; i--)
+            injector = MethodHandles.foldArguments(injector, steps.get(i));
+        return injector;
+    }
+
+    private static MethodHandle supply(MethodHandle target, int first, int count) {
+        MethodHandle supplied = target;
+        for (int i = 0; i < count; i++) {
+            MethodHandle get = MethodHandles.filterReturnValue(MethodHandles.insertArguments(BINDING_AT, 1, first + i), BINDING_GET);
+            supplied = MethodHandles.collectArguments(supplied, i + 1, get.asType(methodType(supplied.type().parameterType(i + 1), Binding[].class)));
+        }
+        int[] reorder = new int[count + 1];
+        Arrays.fill(reorder, 1, reorder.length, 1);
+        MethodType type = methodType(void.class, supplied.type().parameterType(0), Binding[].class);
+        return MethodHandles.permuteArguments(supplied, type, reorder).asType(methodType(void.class, Object.class, Binding[].class));
+    }
+
+    private static Binding<?> bindingOf(Context context, ComponentRef<?> ref) {
+        return context.handle(ref).orElseThrow(IllegalStateException::new);
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        ComponentRef<?>[] required = injection.injectConstructor().required();
+        Stream<ComponentRef<?>> constructor = IntStream.range(0, required.length)
+                .filter(i -> assisted[i] < 0).mapToObj(i -> required[i]);
+        return Stream.concat(constructor, Stream.concat(injection.injectFields().stream(), injection.injectMethods().stream())
+                .map(InjectionProvider.Injectable::required).flatMap(Arrays::stream)).toList();
+    }
+
+    @Override
+    public void intercept(Interception interception) {
+        injection.intercept(interception);
+        try {
+            instantiate = instantiate();
+        } catch (IllegalAccessException e) {
+            throw new IllegalComponentException();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package geektime.tdd.di;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public class CacheScope implements ContextConfig.ScopeProvider {
+    private final Map<Component, CachedReference> instances = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> cleared = new ReferenceQueue<>();
+    private final Map<Component, Object> residents;
+    private final int maxResidents;
+
+    public static CacheScope soft() {
+        return new CacheScope(0);
+    }
+
+    public static CacheScope lru(int residents) {
+        if (residents <= 0) throw new IllegalArgumentException();
+        return new CacheScope(residents);
+    }
+
+    private CacheScope(int maxResidents) {
+        this.maxResidents = maxResidents;
+        this.residents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Component, Object> eldest) {
+                return size() > maxResidents;
+            }
+        };
+    }
+
+    @Override
+    public ContextConfig.ComponentProvider<?> create(Component component, ContextConfig.ComponentProvider<?> provider) {
+        return new CachedProvider<>(component, provider);
+    }
+
+    @Override
+    public ContextConfig.ScopeProvider fork() {
+        return new CacheScope(maxResidents);
+    }
+
+    public void evict(Component component) {
+        remove(component);
+    }
+
+    private Object remove(Component component) {
+        Object resident;
+        synchronized (residents) {
+            resident = residents.remove(component);
+        }
+        CachedReference reference = instances.remove(component);
+        return resident != null ? resident : reference == null ? null : reference.get();
+    }
+
+    boolean isResident(Component component) {
+        synchronized (residents) {
+            return residents.containsKey(component);
+        }
+    }
+
+    private Object lookup(Component component) {
+        expunge();
+        synchronized (residents) {
+            Object resident = residents.get(component);
+            if (resident != null) return resident;
+        }
+        CachedReference reference = instances.get(component);
+        Object instance = reference == null ? null : reference.get();
+        if (instance != null) keepResident(component, instance);
+        return instance;
+    }
+
+    private void store(Component component, Object instance) {
+        instances.put(component, new CachedReference(component, instance, cleared));
+        keepResident(component, instance);
+    }
+
+    private void keepResident(Component component, Object instance) {
+        synchronized (residents) {
+            residents.put(component, instance);
+        }
+    }
+
+    private void expunge() {
+        for (CachedReference reference; (reference = (CachedReference) cleared.poll()) != null; )
+            instances.remove(reference.component, reference);
+    }
+
+    private static class CachedReference extends SoftReference<Object> {
+        private final Component component;
+
+        CachedReference(Component component, Object instance, ReferenceQueue<Object> queue) {
+            super(instance, queue);
+            this.component = component;
+        }
+    }
+
+    private class CachedProvider<T> implements ContextConfig.ComponentProvider<T> {
+        private final Component component;
+        private final ContextConfig.ComponentProvider<T> provider;
+
+        CachedProvider(Component component, ContextConfig.ComponentProvider<T> provider) {
+            this.component = component;
+            this.provider = provider;
+        }
+
+        @Override
+        public T get(Context context) {
+            Object instance = lookup(component);
+            if (instance != null) return (T) instance;
+            synchronized (this) {
+                instance = lookup(component);
+                if (instance == null) {
+                    instance = provider.get(context);
+                    store(component, instance);
+                }
+            }
+            return (T) instance;
+        }
+
+        @Override
+        public List<ComponentRef<?>> getDependencies() {
+            return provider.getDependencies();
+        }
+
+        @Override
+        public void warm(Context context) {
+            get(context);
+        }
+
+        @Override
+        public void intercept(Interception interception) {
+            provider.intercept(interception);
+        }
+
+        @Override
+        public List<Object> instances() {
+            CachedReference reference = instances.get(component);
+            Object instance = reference == null ? null : reference.get();
+            return instance == null ? List.of() : List.of(instance);
+        }
+
+        @Override
+        public ContextConfig.ComponentProvider<T> fork(Function<ContextConfig.ScopeProvider, ContextConfig.ScopeProvider> scopes) {
+            return ((CacheScope) scopes.apply(CacheScope.this)).new CachedProvider<>(component, provider);
+        }
+
+        @Override
+        public void close() {
+            Object instance = remove(component);
+            if (instance != null) provider.destroy((T) instance);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package geektime.tdd.di;
+
+import jdk.jfr.*;
+
+@Name("geektime.tdd.di.CompilationFallback")
+@Label("Compilation Fallback")
+@Category("Dependency Injection")
+@Description("Component graph could not be compiled and stays on reflective injection")
+@StackTrace(false)
+class CompilationFallbackEvent extends Event {
+    @Label("Component Type")
+    Class<?> componentType;
+
+    @Label("Qualifier")
+    String qualifier;
+
+    @Label("Reason")
+    String reason;
+}
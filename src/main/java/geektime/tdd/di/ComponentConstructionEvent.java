@@ -0,0 +1,14 @@
+package geektime.tdd.di;
+
+import jdk.jfr.*;
+
+@Name("geektime.tdd.di.ComponentConstruction")
+@Label("Component Construction")
+@Category("Dependency Injection")
+@Description("Instance created and injected by an InjectionProvider")
+@StackTrace(false)
+@Threshold("1 ms")
+class ComponentConstructionEvent extends Event {
+    @Label("Implementation")
+    Class<?> implementation;
+}
@@ -0,0 +1,22 @@
+package geektime.tdd.di;
+
+import jdk.jfr.*;
+
+@Name("geektime.tdd.di.ComponentPromotion")
+@Label("Component Promotion")
+@Category("Dependency Injection")
+@Description("Hot component promoted from reflective injection to a compiled factory")
+@StackTrace(false)
+class ComponentPromotionEvent extends Event {
+    @Label("Component Type")
+    Class<?> componentType;
+
+    @Label("Qualifier")
+    String qualifier;
+
+    @Label("Invocations")
+    int invocations;
+
+    @Label("Graph Size")
+    int graphSize;
+}
@@ -1,5 +1,7 @@
 package geektime.tdd.di;
 
+import jakarta.inject.Provider;
+
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -22,9 +24,22 @@ public class ComponentRef<ComponentType> {
         return new ComponentRef(type, qualifier);
     }
 
+    static ComponentRef<?> of(Component component) {
+        return new ComponentRef<>(component, null);
+    }
+
+    static ComponentRef<?> providerOf(Component component) {
+        return new ComponentRef<>(component, Provider.class);
+    }
+
     private Type container;
     private Component component;
 
+    private ComponentRef(Component component, Type container) {
+        this.container = container;
+        this.component = component;
+    }
+
     ComponentRef(Type type, Annotation qualifier) {
         init(type, qualifier);
     }
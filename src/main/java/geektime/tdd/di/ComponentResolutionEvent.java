@@ -0,0 +1,17 @@
+package geektime.tdd.di;
+
+import jdk.jfr.*;
+
+@Name("geektime.tdd.di.ComponentResolution")
+@Label("Component Resolution")
+@Category("Dependency Injection")
+@Description("Component retrieved from a Context, including construction of its dependencies")
+@StackTrace(false)
+@Threshold("1 ms")
+class ComponentResolutionEvent extends Event {
+    @Label("Component Type")
+    Class<?> componentType;
+
+    @Label("Qualifier")
+    String qualifier;
+}
@@ -0,0 +1,77 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Named;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import static java.lang.invoke.MethodType.methodType;
+
+class Configuration {
+    private static final Map<Class<?>, Class<?>> wrappers = Map.of(boolean.class, Boolean.class, byte.class, Byte.class,
+            short.class, Short.class, int.class, Integer.class, long.class, Long.class, float.class, Float.class,
+            double.class, Double.class, char.class, Character.class);
+
+    private final Map<String, String> values = new HashMap<>();
+
+    void putAll(Properties properties) {
+        for (String name : properties.stringPropertyNames())
+            values.put(name, properties.getProperty(name));
+    }
+
+    Optional<Object> valueOf(Component component) {
+        if (!(component.qualifiers() instanceof Named named) || !values.containsKey(named.value())) return Optional.empty();
+        return Optional.of(convert(values.get(named.value()), component.type()));
+    }
+
+    static Object convert(String value, Class<?> type) {
+        Class<?> target = wrappers.getOrDefault(type, type);
+        if (target.isAssignableFrom(String.class)) return value;
+        if (target == Character.class) {
+            if (value.length() != 1) throw new IllegalComponentException();
+            return value.charAt(0);
+        }
+        if (target.isEnum()) return enumConstant(target, value.trim());
+        if (target == Path.class) return Path.of(value);
+        try {
+            return converter(target).invoke(value.trim());
+        } catch (IllegalComponentException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalComponentException();
+        }
+    }
+
+    private static <E extends Enum<E>> Object enumConstant(Class<?> type, String value) {
+        try {
+            return Enum.valueOf((Class<E>) type, value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalComponentException();
+        }
+    }
+
+    private static MethodHandle converter(Class<?> type) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (String name : new String[]{"valueOf", "parse", "of", "create"})
+            for (Class<?> parameter : new Class<?>[]{String.class, CharSequence.class}) {
+                try {
+                    MethodHandle factory = lookup.findStatic(type, name, methodType(type, parameter));
+                    return factory.asType(MethodType.methodType(Object.class, String.class));
+                } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                }
+            }
+        try {
+            if (!Modifier.isAbstract(type.getModifiers()))
+                return lookup.findConstructor(type, methodType(void.class, String.class)).asType(methodType(Object.class, String.class));
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+        }
+        throw new IllegalComponentException();
+    }
+}
@@ -2,7 +2,13 @@ package geektime.tdd.di;
 
 import java.util.Optional;
 
-public interface Context {
+public interface Context extends AutoCloseable {
     <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref);
 
+    <ComponentType> Optional<Binding<ComponentType>> handle(ComponentRef<ComponentType> ref);
+
+    Footprint footprint();
+
+    @Override
+    void close();
 }
@@ -1,75 +1,665 @@
 package geektime.tdd.di;
 
+import jakarta.inject.Named;
 import jakarta.inject.Provider;
 import jakarta.inject.Qualifier;
+import jakarta.inject.Scope;
+import jakarta.inject.Singleton;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.stream;
 
 public class ContextConfig {
-    private Map<Component, ComponentProvider<?>> components = new HashMap<>();
+    private static final int MAP_ENTRY_BYTES = 40;
+
+    private Map<Component, ComponentProvider<?>> components = new ConcurrentHashMap<>();
+    private Set<Component> unchecked = new HashSet<>();
+    private Map<Class<?>, ScopeProvider> scopes = new HashMap<>();
+    private Map<ScopeProvider, ScopeProvider> forkedScopes = new IdentityHashMap<>();
+    private int maxCompiledGraphSize = 0;
+    private TieredCompilation tiered;
+    private boolean justInTime = false;
+    private Path profile;
+    private boolean training = Boolean.getBoolean("geektime.tdd.di.training");
+    private Executor introspection;
+    private Map<Component, Introspection> introspecting = new LinkedHashMap<>();
+    private Interception interception = new Interception();
+    private Set<Component> misses = ConcurrentHashMap.newKeySet();
+    private Configuration configuration = new Configuration();
+    private Set<Component> configured = ConcurrentHashMap.newKeySet();
+    private volatile DependencyGraph graph = new DependencyGraph(Map.of());
+    private ContextConfig parent;
+    private Set<Component> borrowed = Set.of();
+    private volatile boolean perResolution;
+
+    public ContextConfig() {
+        scope(Singleton.class, SingletonProvider::new);
+        scope(Cached.class, CacheScope.soft());
+        scope(Striped.class, StripedScope.perCore());
+        scope(PerResolution.class, new ResolutionScope());
+    }
+
+    private ContextConfig(ContextConfig parent) {
+        this.parent = parent;
+        parent.scopes.forEach((scope, provider) -> scopes.put(scope, forked(provider)));
+        this.interception = parent.interception;
+    }
+
+    public ContextConfig tenant() {
+        return new ContextConfig(this);
+    }
+
+    public <ScopeType extends Annotation> void scope(Class<ScopeType> scope, ScopeProvider provider) {
+        scopes.put(scope, provider);
+    }
+
+    public StripedScope stripedScope() {
+        if (parent != null) return parent.stripedScope();
+        if (!(scopes.get(Striped.class) instanceof StripedScope striped)) throw new IllegalStateException();
+        return striped;
+    }
+
+    public void compilePrototypeGraphs(int maxGraphSize) {
+        if (maxGraphSize < 0) throw new IllegalArgumentException();
+        this.maxCompiledGraphSize = maxGraphSize;
+    }
+
+    public void compileHotComponents(TieredCompilation tiered) {
+        this.tiered = tiered;
+    }
+
+    public <BindingType extends Annotation> void intercept(Class<BindingType> binding, MethodInterceptor interceptor) {
+        if (parent != null) throw new IllegalStateException();
+        interception.add(binding, interceptor);
+    }
+
+    public void introspectOn(Executor executor) {
+        this.introspection = executor;
+    }
+
+    public void profile(Path profile) {
+        this.profile = profile;
+    }
+
+    public void train() {
+        this.training = true;
+    }
+
+    public void allowJustInTimeBindings() {
+        this.justInTime = true;
+    }
+
+    public void bindConfiguration(Path properties) {
+        Properties loaded = new Properties();
+        try (Reader reader = Files.newBufferedReader(properties)) {
+            loaded.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        bindConfiguration(loaded);
+    }
+
+    public void bindConfiguration(Properties properties) {
+        configuration.putAll(properties);
+        for (Component component : List.copyOf(configured))
+            if (properties.containsKey(((Named) component.qualifiers()).value())) configure(component);
+    }
 
     public <Type> void bind(Class<Type> type, Type instance) {
-        components.put(new Component(type, null), (ComponentProvider<Type>) context -> instance);
+        register(new Component(type, null), context -> instance);
     }
 
     public <Type> void bind(Class<Type> type, Type instance, Annotation... qualifiers) {
         if (Arrays.stream(qualifiers).anyMatch(q -> !q.annotationType().isAnnotationPresent(Qualifier.class)))
             throw new IllegalComponentException();
         for (Annotation qualifier : qualifiers)
-            components.put(new Component(type, qualifier), context -> instance);
+            register(new Component(type, qualifier), context -> instance);
     }
 
     public <Type, Implementation extends Type>
     void bind(Class<Type> type, Class<Implementation> implementation) {
-        components.put(new Component(type, null), new InjectionProvider<>(implementation));
+        bind(type, implementation, new Annotation[0]);
     }
 
     public <Type, Implementation extends Type>
-    void bind(Class<Type> type, Class<Implementation> implementation, Annotation... qualifiers) {
-        if (Arrays.stream(qualifiers).anyMatch(q -> !q.annotationType().isAnnotationPresent(Qualifier.class)))
+    void bind(Class<Type> type, Class<Implementation> implementation, Annotation... annotations) {
+        Map<Class<?>, List<Annotation>> annotationGroups = stream(annotations).collect(Collectors.groupingBy(this::typeOf));
+        if (annotationGroups.containsKey(Illegal.class)) throw new IllegalComponentException();
+        Optional<Annotation> scope = scopeOf(implementation, annotationGroups.getOrDefault(Scope.class, List.of()));
+        List<Annotation> qualifiers = annotationGroups.getOrDefault(Qualifier.class, List.of());
+        if (qualifiers.isEmpty()) bind(List.of(new Component(type, null)), implementation, scope);
+        else bind(qualifiers.stream().map(qualifier -> new Component(type, qualifier)).toList(), implementation, scope);
+    }
+
+    public <Type> void alias(ComponentRef<? super Type> alias, ComponentRef<Type> target) {
+        if (alias.isContainer() || target.isContainer() || !alias.getComponentType().isAssignableFrom(target.getComponentType())
+                || alias.component().equals(target.component()))
             throw new IllegalComponentException();
-        for (Annotation qualifier : qualifiers)
-            components.put(new Component(type, qualifier), new InjectionProvider<>(implementation));
+        register(alias.component(), new AliasProvider<>(target));
+    }
+
+    public <Factory, Implementation>
+    void bindFactory(Class<Factory> factory, Class<Implementation> implementation) {
+        register(new Component(factory, null), new AssistedFactoryProvider<>(factory, implementation));
+    }
+
+    public void install(Object module) {
+        for (Method method : module.getClass().getDeclaredMethods()) {
+            if (!method.isAnnotationPresent(Provides.class)) continue;
+            Map<Class<?>, List<Annotation>> annotationGroups = stream(method.getAnnotations()).collect(Collectors.groupingBy(this::typeOf));
+            List<Annotation> qualifiers = annotationGroups.getOrDefault(Qualifier.class, List.of());
+            if (qualifiers.size() > 1) throw new IllegalComponentException();
+            Component component = new Component(method.getReturnType(), qualifiers.stream().findFirst().orElse(null));
+            bind(component, new ProvidesProvider<>(module, method), scopeOf(method, annotationGroups.getOrDefault(Scope.class, List.of())));
+        }
+    }
+
+    public ContextModule module(ComponentRef<?>... exports) {
+        awaitIntrospection();
+        return new ContextModule(new HashMap<>(components), stream(exports).map(ComponentRef::component).collect(Collectors.toSet()));
+    }
+
+    public void include(ContextModule module) {
+        for (Component component : module.exported())
+            register(component, module.export(component));
+    }
+
+    private void bind(List<Component> components, Class<?> implementation, Optional<Annotation> scope) {
+        if (introspection == null) {
+            InjectionProvider<?> provider = new InjectionProvider<>(implementation);
+            for (Component component : components) bind(component, provider, scope);
+            return;
+        }
+        CompletableFuture<InjectionProvider<?>> provider = CompletableFuture.supplyAsync(() -> new InjectionProvider<>(implementation), introspection);
+        for (Component component : components) {
+            introspecting.remove(component);
+            introspecting.put(component, new Introspection(provider, scope));
+        }
+    }
+
+    private void awaitIntrospection() {
+        List<Map.Entry<Component, Introspection>> pending = new ArrayList<>(introspecting.entrySet());
+        introspecting.clear();
+        RuntimeException failure = null;
+        for (Map.Entry<Component, Introspection> introspected : pending) {
+            try {
+                bind(introspected.getKey(), introspected.getValue().provider().join(), introspected.getValue().scope());
+            } catch (CompletionException e) {
+                if (failure == null) failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    private record Introspection(CompletableFuture<InjectionProvider<?>> provider, Optional<Annotation> scope) {
+    }
+
+    private void bind(Component component, ComponentProvider<?> provider, Optional<Annotation> scope) {
+        register(component, scope.<ComponentProvider<?>>map(s -> scoped(s, component, provider)).orElse(provider));
+    }
+
+    private void register(Component component, ComponentProvider<?> provider) {
+        introspecting.remove(component);
+        ComponentProvider<?> replaced = components.put(component, provider);
+        if (provider instanceof ResolutionScope.ResolutionProvider<?>) perResolution = true;
+        if (replaced != null) invalidate(component, replaced);
+        unchecked.add(component);
+        misses.remove(component);
+        configured.remove(component);
+    }
+
+    private void invalidate(Component component, ComponentProvider<?> replaced) {
+        replaced.close();
+        Set<Component> downstream = new HashSet<>();
+        graph.collectDependents(List.of(component), downstream);
+        for (Component dependent : downstream) {
+            ComponentProvider<?> provider = components.get(dependent);
+            if (provider != null) provider.close();
+        }
+    }
+
+    private ScopeProvider forked(ScopeProvider scope) {
+        return forkedScopes.computeIfAbsent(scope, ScopeProvider::fork);
+    }
+
+    private ComponentProvider<?> scoped(Annotation scope, Component component, ComponentProvider<?> provider) {
+        if (!scopes.containsKey(scope.annotationType())) throw new IllegalComponentException();
+        return scopes.get(scope.annotationType()).create(component, provider);
+    }
+
+    private Optional<Annotation> scopeOf(AnnotatedElement element, List<Annotation> scopes) {
+        if (scopes.size() > 1) throw new IllegalComponentException();
+        return scopes.stream().findFirst().or(() -> stream(element.getAnnotations())
+                .filter(a -> a.annotationType().isAnnotationPresent(Scope.class)).findFirst());
+    }
+
+    private Class<?> typeOf(Annotation annotation) {
+        Class<? extends Annotation> type = annotation.annotationType();
+        return Stream.of(Qualifier.class, Scope.class).filter(type::isAnnotationPresent).findFirst().orElse(Illegal.class);
+    }
+
+    private @interface Illegal {
     }
 
     public Context getContext() {
-        components.keySet().forEach(component -> checkDependencies(component, new Stack<>()));
-        return new Context() {
-            @Override
-            public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
-                if (ref.isContainer()) {
-                    if (ref.getContainer() != Provider.class) return Optional.empty();
-                    return (Optional<ComponentType>) Optional.ofNullable(getProvider(ref))
-                            .map(provider -> (Provider<Object>) () -> provider.get(this));
-                }
-                return Optional.ofNullable(getProvider(ref)).map(provider -> (ComponentType) provider.get(this));
+        if (parent != null) return tenantContext();
+        prepare();
+        Function<Component, ComponentProvider<?>> validated = component -> graph.providerOf(component);
+        GraphCompiler compiler = maxCompiledGraphSize > 0 ? new GraphCompiler(validated, maxCompiledGraphSize)
+                : tiered != null ? new GraphCompiler(validated, tiered.maxGraphSize()) : null;
+        UsageProfile usage = profile != null ? new UsageProfile(profile) : null;
+        Map<Component, ComponentProvider<?>> compiled = new ConcurrentHashMap<>();
+        Context context = new ResolvingContext((self, ref) -> {
+            if (usage != null) usage.record(ref.component());
+            ComponentProvider<?> provider = getProvider(ref);
+            if (compiler == null || !(provider instanceof InjectionProvider<?>)) return provider;
+            if (maxCompiledGraphSize > 0) return compiled.computeIfAbsent(ref.component(), component -> compiler.compile(component, self));
+            return compiled.computeIfAbsent(ref.component(), component -> tiered.tier(component, provider, () -> compiler.compile(component, self)));
+        }, () -> perResolution, () -> footprint(components, compiled, graph.bytes(), MAP_ENTRY_BYTES * (components.size() + compiled.size())), () -> {
+            graph.closeInReverseDependencyOrder(ForkJoinPool.commonPool(), component -> !borrowed.contains(component));
+            if (usage != null) usage.save();
+        });
+        if (usage != null) warm(context, usage.recorded(graph));
+        if (training) exercise(context);
+        return context;
+    }
+
+    private synchronized DependencyGraph prepare() {
+        awaitIntrospection();
+        ContextValidationEvent validation = new ContextValidationEvent();
+        validation.begin();
+        validation.checkedCount = validate();
+        if (!interception.isEmpty()) components.values().forEach(provider -> provider.intercept(interception));
+        validation.bindingCount = components.size();
+        validation.mapBytesPerBinding = components.isEmpty() ? 0 : MAP_ENTRY_BYTES;
+        validation.bytesPerBinding = components.isEmpty() ? 0
+                : (double) (MAP_ENTRY_BYTES * components.size() + graph.bytes()) / components.size();
+        validation.commit();
+        return graph;
+    }
+
+    private Context tenantContext() {
+        awaitIntrospection();
+        DependencyGraph base = parent.prepare();
+        for (Component component : parent.configured)
+            if (!components.containsKey(component)) configure(component);
+        for (Component component : List.copyOf(components.keySet()))
+            for (ComponentRef<?> dependency : components.get(component).getDependencies())
+                if (!components.containsKey(dependency.component()) && base.providerOf(dependency.component()) == null
+                        && !configure(dependency.component()))
+                    throw new DependencyNotFoundException(component, dependency.component());
+        unchecked.clear();
+        Map<Component, ComponentProvider<?>> overlay = new HashMap<>(components);
+        Set<Component> affected = new HashSet<>();
+        base.collectDependents(components.keySet(), affected);
+        for (Component component : affected) {
+            if (overlay.containsKey(component)) continue;
+            ComponentProvider<?> shared = base.providerOf(component);
+            ComponentProvider<?> forked = shared.fork(this::forked);
+            if (forked != shared) overlay.put(component, forked);
+        }
+        DependencyGraph tenant = base.patch(overlay, overlay.keySet());
+        tenant.checkCycles(overlay.keySet());
+        if (!interception.isEmpty()) components.values().forEach(provider -> provider.intercept(interception));
+        return new ResolvingContext((self, ref) -> {
+            ComponentProvider<?> provider = overlay.get(ref.component());
+            return provider != null ? provider : parent.getProvider(ref);
+        }, () -> perResolution || parent.perResolution, () -> footprint(overlay, Map.of(), 0, MAP_ENTRY_BYTES * overlay.size()), () -> tenant.closeInReverseDependencyOrder(Runnable::run, overlay::containsKey));
+    }
+
+    private static Footprint footprint(Map<Component, ComponentProvider<?>> providers, Map<Component, ComponentProvider<?>> compiled,
+                                       long graphBytes, long mapBytes) {
+        Map<Component, List<Object>> instances = new HashMap<>();
+        Set<Object> held = Collections.newSetFromMap(new IdentityHashMap<>());
+        providers.forEach((component, provider) -> {
+            instances.put(component, provider.instances());
+            held.addAll(instances.get(component));
+        });
+        HeapEstimator estimator = new HeapEstimator(held);
+        Map<Component, Long> retained = new HashMap<>();
+        providers.keySet().forEach(component ->
+                retained.put(component, instances.get(component).stream().mapToLong(estimator::retained).sum()));
+        List<Footprint.ComponentFootprint> footprints = new ArrayList<>();
+        providers.forEach((component, provider) -> {
+            long providerBytes = estimator.retained(provider);
+            if (compiled.containsKey(component)) providerBytes += estimator.retained(compiled.get(component));
+            footprints.add(new Footprint.ComponentFootprint(component, provider.getClass().getSimpleName(),
+                    instances.get(component).size(), retained.get(component), providerBytes));
+        });
+        footprints.sort(Comparator.comparingLong(Footprint.ComponentFootprint::retainedBytes).reversed());
+        return new Footprint(footprints, graphBytes, mapBytes);
+    }
+
+    public Context getContext(ComponentRef<?>... roots) {
+        awaitIntrospection();
+        ContextConfig reachable = new ContextConfig();
+        scopes.forEach((scope, provider) -> reachable.scopes.put(scope, reachable.forked(provider)));
+        reachable.maxCompiledGraphSize = maxCompiledGraphSize;
+        reachable.tiered = tiered;
+        reachable.justInTime = justInTime;
+        reachable.profile = profile;
+        reachable.training = training;
+        reachable.interception = interception;
+        reachable.configuration = configuration;
+        reachable.borrowed = new HashSet<>();
+        Deque<Component> pending = new ArrayDeque<>();
+        for (ComponentRef<?> root : roots) pending.add(root.component());
+        while (!pending.isEmpty()) {
+            Component component = pending.poll();
+            ComponentProvider<?> provider = components.get(component);
+            if (provider == null || reachable.components.containsKey(component)) continue;
+            ComponentProvider<?> owned = provider.fork(reachable::forked);
+            if (owned == provider) reachable.borrowed.add(component);
+            reachable.register(component, owned);
+            for (ComponentRef<?> dependency : provider.getDependencies()) pending.add(dependency.component());
+        }
+        return reachable.getContext();
+    }
+
+    private static class ResolvingContext implements Context {
+        private final BiFunction<Context, ComponentRef<?>, ComponentProvider<?>> providers;
+        private final BooleanSupplier perResolution;
+        private final Supplier<Footprint> footprint;
+        private final Runnable closing;
+
+        ResolvingContext(BiFunction<Context, ComponentRef<?>, ComponentProvider<?>> providers, BooleanSupplier perResolution,
+                         Supplier<Footprint> footprint, Runnable closing) {
+            this.providers = providers;
+            this.perResolution = perResolution;
+            this.footprint = footprint;
+            this.closing = closing;
+        }
+
+        @Override
+        public Footprint footprint() {
+            return footprint.get();
+        }
+
+        @Override
+        public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
+            ComponentResolutionEvent event = new ComponentResolutionEvent();
+            event.begin();
+            Optional<ComponentType> component = resolve(ref);
+            event.end();
+            if (event.shouldCommit()) {
+                event.componentType = ref.getComponentType();
+                event.qualifier = Objects.toString(ref.component().qualifiers(), null);
+                event.commit();
+            }
+            return component;
+        }
+
+        private <ComponentType> Optional<ComponentType> resolve(ComponentRef<ComponentType> ref) {
+            if (ref.isContainer()) {
+                if (ref.getContainer() != Provider.class) return Optional.empty();
+                return (Optional<ComponentType>) Optional.ofNullable(providers.apply(this, ref))
+                        .map(provider -> (Provider<Object>) () -> instance(provider));
             }
-        };
+            return Optional.ofNullable(providers.apply(this, ref)).map(provider -> (ComponentType) instance(provider));
+        }
+
+        @Override
+        public <ComponentType> Optional<Binding<ComponentType>> handle(ComponentRef<ComponentType> ref) {
+            if (ref.isContainer()) {
+                if (ref.getContainer() != Provider.class) return Optional.empty();
+                return Optional.ofNullable(providers.apply(this, ref)).map(provider -> {
+                    ComponentType container = (ComponentType) (Provider<Object>) () -> instance(provider);
+                    return () -> container;
+                });
+            }
+            return Optional.ofNullable(providers.apply(this, ref)).map(provider -> () -> (ComponentType) instance(provider));
+        }
+
+        private Object instance(ComponentProvider<?> provider) {
+            if (!perResolution.getAsBoolean()) return provider.get(this);
+            return ResolutionScope.resolving(() -> provider.get(this));
+        }
+
+        @Override
+        public void close() {
+            closing.run();
+        }
+    }
+
+    private void exercise(Context context) {
+        for (Component component : List.copyOf(components.keySet())) {
+            ComponentRef<?> ref = ComponentRef.of(component);
+            context.get(ref);
+            context.handle(ref).ifPresent(Binding::get);
+        }
+    }
+
+    private void warm(Context context, List<Component> recorded) {
+        for (Component component : recorded)
+            graph.providerOf(component).warm(context);
     }
 
     private <ComponentType> ComponentProvider<?> getProvider(ComponentRef<ComponentType> ref) {
-        return components.get(ref.component());
-    }
-
-    private void checkDependencies(Component component, Stack<Component> visiting) {
-        for (ComponentRef<?> dependency : components.get(component).getDependencies()) {
-            if (!components.containsKey(dependency.component()))
-                throw new DependencyNotFoundException(component, dependency.component());
-            if (!dependency.isContainer()) {
-                if (visiting.contains(dependency.component())) throw new CyclicDependenciesFoundException(visiting);
-                visiting.push(dependency.component());
-                checkDependencies(dependency.component(), visiting);
-                visiting.pop();
+        ComponentProvider<?> provider = graph.providerOf(ref.component());
+        if (provider != null || !justInTime || misses.contains(ref.component())) return provider;
+        return bindJustInTime(ref.component());
+    }
+
+    private synchronized ComponentProvider<?> bindJustInTime(Component component) {
+        DependencyGraph validated = graph;
+        if (validated.providerOf(component) != null || components.containsKey(component)) return validated.providerOf(component);
+        ComponentProvider<?> provider = justInTime(component);
+        if (provider == null) return null;
+        Map<Component, ComponentProvider<?>> created = new HashMap<>();
+        Set<Component> constants = new HashSet<>();
+        created.put(component, provider);
+        Deque<Component> pending = new ArrayDeque<>(List.of(component));
+        while (!pending.isEmpty()) {
+            Component dependent = pending.poll();
+            for (ComponentRef<?> dependency : created.get(dependent).getDependencies()) {
+                Component required = dependency.component();
+                if (validated.providerOf(required) != null || created.containsKey(required)) continue;
+                if (components.containsKey(required)) throw new DependencyNotFoundException(dependent, required);
+                Optional<Object> value = configuration.valueOf(required);
+                ComponentProvider<?> requiredProvider = value.<ComponentProvider<?>>map(constant -> context -> constant)
+                        .orElseGet(() -> justInTime(required));
+                if (requiredProvider == null) throw new DependencyNotFoundException(dependent, required);
+                if (value.isPresent()) constants.add(required);
+                created.put(required, requiredProvider);
+                pending.add(required);
+            }
+        }
+        DependencyGraph patched = validated.patch(created, created.keySet());
+        patched.checkCycles(created.keySet());
+        if (!interception.isEmpty()) created.values().forEach(bound -> bound.intercept(interception));
+        created.forEach((bound, boundProvider) -> {
+            components.put(bound, boundProvider);
+            if (boundProvider instanceof ResolutionScope.ResolutionProvider<?>) perResolution = true;
+        });
+        configured.addAll(constants);
+        graph = patched;
+        return provider;
+    }
+
+    private ComponentProvider<?> justInTime(Component component) {
+        if (misses.contains(component)) return null;
+        Class<?> type = component.type();
+        if (component.qualifiers() != null || type.isPrimitive() || type.isArray()
+                || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            misses.add(component);
+            return null;
+        }
+        try {
+            ComponentProvider<?> provider = new InjectionProvider<>(type);
+            return scopeOf(type, List.of()).<ComponentProvider<?>>map(scope -> scoped(scope, component, provider)).orElse(provider);
+        } catch (IllegalComponentException e) {
+            misses.add(component);
+            return null;
+        }
+    }
+
+    private boolean configure(Component component) {
+        Optional<Object> value = configuration.valueOf(component);
+        value.ifPresent(constant -> {
+            register(component, context -> constant);
+            configured.add(component);
+        });
+        return value.isPresent();
+    }
+
+    private int validate() {
+        Deque<Component> pending = new ArrayDeque<>(unchecked);
+        Set<Component> checked = new HashSet<>();
+        while (!pending.isEmpty()) {
+            Component component = pending.poll();
+            if (!checked.add(component)) continue;
+            for (ComponentRef<?> dependency : components.get(component).getDependencies()) {
+                if (components.containsKey(dependency.component()) || configure(dependency.component())) continue;
+                ComponentProvider<?> provider = justInTime ? justInTime(dependency.component()) : null;
+                if (provider == null) throw new DependencyNotFoundException(component, dependency.component());
+                register(dependency.component(), provider);
+                pending.add(dependency.component());
             }
         }
+        DependencyGraph validated = graph.patch(components, unchecked);
+        validated.checkCycles(unchecked);
+        graph = validated;
+        int count = unchecked.size();
+        unchecked.clear();
+        return count;
     }
 
-    interface ComponentProvider<T> {
+    public interface ComponentProvider<T> {
         T get(Context context);
 
         default List<ComponentRef<?>> getDependencies() {
             return List.of();
         }
+
+        default void destroy(T instance) {
+        }
+
+        default void close() {
+        }
+
+        default void warm(Context context) {
+        }
+
+        default void intercept(Interception interception) {
+        }
+
+        default ComponentProvider<T> fork(Function<ScopeProvider, ScopeProvider> scopes) {
+            return this;
+        }
+
+        default List<Object> instances() {
+            return List.of();
+        }
+    }
+
+    public interface ScopeProvider {
+        ComponentProvider<?> create(Component component, ComponentProvider<?> provider);
+
+        default ScopeProvider fork() {
+            return this;
+        }
+    }
+
+    static class AliasProvider<T> implements ComponentProvider<T> {
+        private final ComponentRef<T> target;
+
+        AliasProvider(ComponentRef<T> target) {
+            this.target = target;
+        }
+
+        @Override
+        public T get(Context context) {
+            return context.get(target).get();
+        }
+
+        @Override
+        public List<ComponentRef<?>> getDependencies() {
+            return List.of(target);
+        }
+    }
+
+    static class SingletonProvider<T> implements ComponentProvider<T> {
+        private volatile T singleton;
+        private Component component;
+        private ComponentProvider<T> provider;
+
+        SingletonProvider(Component component, ComponentProvider<T> provider) {
+            this.component = component;
+            this.provider = provider;
+        }
+
+        @Override
+        public T get(Context context) {
+            T instance = singleton;
+            if (instance == null) {
+                SingletonContentionEvent contention = new SingletonContentionEvent();
+                contention.begin();
+                synchronized (this) {
+                    contention.end();
+                    if (singleton == null) singleton = provider.get(context);
+                    else if (contention.shouldCommit()) {
+                        contention.componentType = component.type();
+                        contention.qualifier = Objects.toString(component.qualifiers(), null);
+                        contention.commit();
+                    }
+                    instance = singleton;
+                }
+            }
+            return instance;
+        }
+
+        @Override
+        public List<ComponentRef<?>> getDependencies() {
+            return provider.getDependencies();
+        }
+
+        @Override
+        public void warm(Context context) {
+            get(context);
+        }
+
+        @Override
+        public void intercept(Interception interception) {
+            provider.intercept(interception);
+        }
+
+        @Override
+        public ComponentProvider<T> fork(Function<ScopeProvider, ScopeProvider> scopes) {
+            return new SingletonProvider<>(component, provider);
+        }
+
+        @Override
+        public List<Object> instances() {
+            T instance = singleton;
+            return instance == null ? List.of() : List.of(instance);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (singleton == null) return;
+            provider.destroy(singleton);
+            singleton = null;
+        }
     }
-}
\ No newline at end of file
+}
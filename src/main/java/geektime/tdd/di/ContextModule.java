@@ -0,0 +1,131 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Provider;
+
+import java.util.*;
+
+public class ContextModule {
+    private final Map<Component, ContextConfig.ComponentProvider<?>> components;
+    private final DependencyGraph graph;
+    private final Map<Component, List<ComponentRef<?>>> exported = new HashMap<>();
+    private final Set<Component> required = new HashSet<>();
+    private final Set<Component> closed = new HashSet<>();
+
+    ContextModule(Map<Component, ContextConfig.ComponentProvider<?>> components, Set<Component> exports) {
+        this.components = components;
+        if (!components.keySet().containsAll(exports)) throw new IllegalComponentException();
+        this.graph = DependencyGraph.internal(components);
+        graph.checkCycles(components.keySet());
+        for (Component export : exports) {
+            Map<Component, Boolean> requiredDirectly = new HashMap<>();
+            summarize(export, true, new HashMap<>(), requiredDirectly);
+            exported.put(export, requiredDirectly.entrySet().stream()
+                    .<ComponentRef<?>>map(e -> e.getValue() ? ComponentRef.of(e.getKey()) : ComponentRef.providerOf(e.getKey())).toList());
+            required.addAll(requiredDirectly.keySet());
+        }
+    }
+
+    public Set<Component> exported() {
+        return Collections.unmodifiableSet(exported.keySet());
+    }
+
+    public Set<Component> required() {
+        return Collections.unmodifiableSet(required);
+    }
+
+    private void summarize(Component component, boolean direct, Map<Component, Boolean> visited, Map<Component, Boolean> requiredDirectly) {
+        for (ComponentRef<?> dependency : components.get(component).getDependencies()) {
+            boolean directly = direct && !dependency.isContainer();
+            if (!components.containsKey(dependency.component())) {
+                requiredDirectly.merge(dependency.component(), directly, Boolean::logicalOr);
+                continue;
+            }
+            Boolean seen = visited.get(dependency.component());
+            if (seen != null && (seen || !directly)) continue;
+            visited.put(dependency.component(), directly);
+            summarize(dependency.component(), directly, visited, requiredDirectly);
+        }
+    }
+
+    ContextConfig.ComponentProvider<?> export(Component component) {
+        return new ExportedProvider<>(component, components.get(component), exported.get(component));
+    }
+
+    private synchronized boolean closed(Component export) {
+        closed.add(export);
+        if (!closed.containsAll(exported.keySet())) return false;
+        closed.clear();
+        return true;
+    }
+
+    private class ExportedProvider<T> implements ContextConfig.ComponentProvider<T> {
+        private final Component component;
+        private final ContextConfig.ComponentProvider<T> provider;
+        private final List<ComponentRef<?>> dependencies;
+        private volatile ModuleContext context;
+
+        ExportedProvider(Component component, ContextConfig.ComponentProvider<T> provider, List<ComponentRef<?>> dependencies) {
+            this.component = component;
+            this.provider = provider;
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public T get(Context outer) {
+            ModuleContext current = context;
+            if (current == null || current.outer != outer) context = current = new ModuleContext(outer);
+            return provider.get(current);
+        }
+
+        @Override
+        public List<ComponentRef<?>> getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public List<Object> instances() {
+            return provider.instances();
+        }
+
+        @Override
+        public void close() {
+            try {
+                provider.close();
+            } finally {
+                if (closed(component)) graph.closeInReverseDependencyOrder(Runnable::run, internal -> !exported.containsKey(internal));
+            }
+        }
+    }
+
+    private class ModuleContext implements Context {
+        private final Context outer;
+
+        ModuleContext(Context outer) {
+            this.outer = outer;
+        }
+
+        @Override
+        public <ComponentType> Optional<ComponentType> get(ComponentRef<ComponentType> ref) {
+            ContextConfig.ComponentProvider<?> provider = components.get(ref.component());
+            if (provider == null) return outer.get(ref);
+            if (!ref.isContainer()) return Optional.of((ComponentType) provider.get(this));
+            if (ref.getContainer() != Provider.class) return Optional.empty();
+            return Optional.of((ComponentType) (Provider<Object>) () -> provider.get(this));
+        }
+
+        @Override
+        public <ComponentType> Optional<Binding<ComponentType>> handle(ComponentRef<ComponentType> ref) {
+            if (!components.containsKey(ref.component())) return outer.handle(ref);
+            return Optional.of(() -> get(ref).get());
+        }
+
+        @Override
+        public Footprint footprint() {
+            return outer.footprint();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package geektime.tdd.di;
+
+import jdk.jfr.*;
+
+@Name("geektime.tdd.di.ContextValidation")
+@Label("Context Validation")
+@Category("Dependency Injection")
+@Description("Dependency check of bindings changed since the last ContextConfig.getContext")
+@StackTrace(false)
+class ContextValidationEvent extends Event {
+    @Label("Binding Count")
+    int bindingCount;
+
+    @Label("Checked Count")
+    int checkedCount;
+
+    @Label("Map Bytes Per Binding")
+    @Description("Binding map cost per binding without the validated graph")
+    double mapBytesPerBinding;
+
+    @Label("Bytes Per Binding")
+    @Description("Binding map and validated graph cost per binding")
+    double bytesPerBinding;
+}
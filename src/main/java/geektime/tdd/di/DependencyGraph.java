@@ -0,0 +1,226 @@
+package geektime.tdd.di;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+class DependencyGraph {
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int INT_BYTES = 4;
+
+    private final Component[] components;
+    private final ContextConfig.ComponentProvider<?>[] providers;
+    private final int[] offsets;
+    private final int[] edges;
+    private final int[] table;
+
+    DependencyGraph(Map<Component, ContextConfig.ComponentProvider<?>> bindings) {
+        this(new DependencyGraph(), bindings, bindings.keySet(), true);
+    }
+
+    static DependencyGraph internal(Map<Component, ContextConfig.ComponentProvider<?>> bindings) {
+        return new DependencyGraph(new DependencyGraph(), bindings, bindings.keySet(), false);
+    }
+
+    private DependencyGraph() {
+        this.components = new Component[0];
+        this.providers = new ContextConfig.ComponentProvider<?>[0];
+        this.offsets = new int[1];
+        this.edges = new int[0];
+        this.table = new int[4];
+    }
+
+    private DependencyGraph(DependencyGraph base, Map<Component, ContextConfig.ComponentProvider<?>> bindings, Collection<Component> changed,
+                            boolean complete) {
+        List<Component> added = changed.stream().filter(component -> base.idOf(component) < 0).toList();
+        int size = base.size() + added.size();
+        this.components = Arrays.copyOf(base.components, size);
+        this.providers = Arrays.copyOf(base.providers, size);
+        int id = base.size();
+        for (Component component : added) components[id++] = component;
+        if (base.table.length >= size << 1) {
+            this.table = base.table.clone();
+            for (id = base.size(); id < size; id++) index(id);
+        } else {
+            this.table = new int[Integer.highestOneBit(Math.max(size, 1)) << 2];
+            for (id = 0; id < size; id++) index(id);
+        }
+        List<ComponentRef<?>>[] dependencies = new List[size];
+        int edgeCount = base.edges.length;
+        for (Component component : changed) {
+            id = idOf(component);
+            providers[id] = bindings.get(component);
+            dependencies[id] = providers[id].getDependencies();
+            edgeCount += dependencies[id].size() - (id < base.size() ? base.offsets[id + 1] - base.offsets[id] : 0);
+        }
+        this.offsets = new int[size + 1];
+        int[] edges = new int[edgeCount];
+        int edge = 0;
+        for (id = 0; id < size; id++) {
+            if (dependencies[id] == null) {
+                int length = base.offsets[id + 1] - base.offsets[id];
+                System.arraycopy(base.edges, base.offsets[id], edges, edge, length);
+                edge += length;
+            } else {
+                for (ComponentRef<?> dependency : dependencies[id]) {
+                    int target = idOf(dependency.component());
+                    if (target < 0 && complete) throw new DependencyNotFoundException(components[id], dependency.component());
+                    if (target >= 0) edges[edge++] = dependency.isContainer() ? ~target : target;
+                }
+            }
+            offsets[id + 1] = edge;
+        }
+        this.edges = edge == edges.length ? edges : Arrays.copyOf(edges, edge);
+    }
+
+    DependencyGraph patch(Map<Component, ContextConfig.ComponentProvider<?>> bindings, Collection<Component> changed) {
+        return changed.isEmpty() ? this : new DependencyGraph(this, bindings, changed, true);
+    }
+
+    int size() {
+        return components.length;
+    }
+
+    Component component(int id) {
+        return components[id];
+    }
+
+    ContextConfig.ComponentProvider<?> provider(int id) {
+        return providers[id];
+    }
+
+    ContextConfig.ComponentProvider<?> providerOf(Component component) {
+        int id = idOf(component);
+        return id < 0 ? null : providers[id];
+    }
+
+    int idOf(Component component) {
+        int mask = table.length - 1;
+        for (int slot = spread(component.hashCode()) & mask; table[slot] != 0; slot = (slot + 1) & mask)
+            if (components[table[slot] - 1].equals(component)) return table[slot] - 1;
+        return -1;
+    }
+
+    void forEachDirectDependency(int id, IntConsumer action) {
+        for (int edge = offsets[id]; edge < offsets[id + 1]; edge++)
+            if (edges[edge] >= 0) action.accept(edges[edge]);
+    }
+
+    int[] directDependentCounts() {
+        int[] counts = new int[size()];
+        for (int edge : edges)
+            if (edge >= 0) counts[edge]++;
+        return counts;
+    }
+
+    void collectDependents(Collection<Component> roots, Set<Component> downstream) {
+        int[] reverseOffsets = new int[size() + 1];
+        for (int edge : edges) reverseOffsets[(edge < 0 ? ~edge : edge) + 1]++;
+        for (int id = 0; id < size(); id++) reverseOffsets[id + 1] += reverseOffsets[id];
+        int[] cursor = Arrays.copyOf(reverseOffsets, size());
+        int[] dependents = new int[edges.length];
+        for (int id = 0; id < size(); id++)
+            for (int edge = offsets[id]; edge < offsets[id + 1]; edge++)
+                dependents[cursor[edges[edge] < 0 ? ~edges[edge] : edges[edge]]++] = id;
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (Component root : roots) {
+            int id = idOf(root);
+            if (id >= 0) pending.push(id);
+        }
+        while (!pending.isEmpty()) {
+            int id = pending.pop();
+            for (int edge = reverseOffsets[id]; edge < reverseOffsets[id + 1]; edge++)
+                if (downstream.add(components[dependents[edge]])) pending.push(dependents[edge]);
+        }
+    }
+
+    void checkCycles(Collection<Component> roots) {
+        byte[] state = new byte[size()];
+        int[] path = new int[size()];
+        int[] cursor = new int[size()];
+        for (Component root : roots) {
+            int id = idOf(root);
+            if (id < 0 || state[id] != 0) continue;
+            int depth = 0;
+            path[0] = id;
+            cursor[0] = offsets[id];
+            state[id] = 1;
+            while (depth >= 0) {
+                int node = path[depth];
+                if (cursor[depth] == offsets[node + 1]) {
+                    state[node] = 2;
+                    depth--;
+                    continue;
+                }
+                int dependency = edges[cursor[depth]++];
+                if (dependency < 0 || state[dependency] == 2) continue;
+                if (state[dependency] == 1) throw cyclic(path, depth, dependency);
+                state[dependency] = 1;
+                path[++depth] = dependency;
+                cursor[depth] = offsets[dependency];
+            }
+        }
+    }
+
+    void closeInReverseDependencyOrder(Executor executor, Predicate<Component> owned) {
+        if (size() == 0) return;
+        int[] dependentCounts = directDependentCounts();
+        AtomicIntegerArray remainingDependents = new AtomicIntegerArray(dependentCounts);
+        AtomicInteger remaining = new AtomicInteger(size());
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        IntConsumer close = new IntConsumer() {
+            @Override
+            public void accept(int id) {
+                executor.execute(() -> {
+                    try {
+                        if (owned.test(components[id])) providers[id].close();
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    } finally {
+                        forEachDirectDependency(id, dependency -> {
+                            if (remainingDependents.decrementAndGet(dependency) == 0) accept(dependency);
+                        });
+                        if (remaining.decrementAndGet() == 0) closed.complete(null);
+                    }
+                });
+            }
+        };
+        for (int id = 0; id < size(); id++)
+            if (dependentCounts[id] == 0) close.accept(id);
+        closed.join();
+        if (failures.isEmpty()) return;
+        RuntimeException exception = new IllegalStateException("failed to close " + failures.size() + " component(s)");
+        failures.forEach(exception::addSuppressed);
+        throw exception;
+    }
+
+    long bytes() {
+        return 5L * ARRAY_HEADER_BYTES + 2L * REFERENCE_BYTES * components.length
+                + (long) INT_BYTES * (offsets.length + edges.length + table.length);
+    }
+
+    private CyclicDependenciesFoundException cyclic(int[] path, int depth, int dependency) {
+        Stack<Component> visiting = new Stack<>();
+        int start = depth;
+        while (path[start] != dependency) start--;
+        for (int i = start; i <= depth; i++) visiting.push(components[path[i]]);
+        return new CyclicDependenciesFoundException(visiting);
+    }
+
+    private void index(int id) {
+        int mask = table.length - 1;
+        int slot = spread(components[id].hashCode()) & mask;
+        while (table[slot] != 0) slot = (slot + 1) & mask;
+        table[slot] = id + 1;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,54 @@
+package geektime.tdd.di;
+
+import java.util.List;
+
+public record Footprint(List<ComponentFootprint> components, long graphBytes, long mapBytes) {
+    public record ComponentFootprint(Component component, String provider, int instances, long retainedBytes, long providerBytes) {
+    }
+
+    public long retainedBytes() {
+        return components.stream().mapToLong(ComponentFootprint::retainedBytes).sum();
+    }
+
+    public long containerBytes() {
+        return components.stream().mapToLong(ComponentFootprint::providerBytes).sum() + graphBytes + mapBytes;
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"retainedBytes\":").append(retainedBytes())
+                .append(",\"containerBytes\":").append(containerBytes())
+                .append(",\"graphBytes\":").append(graphBytes)
+                .append(",\"mapBytes\":").append(mapBytes)
+                .append(",\"components\":[");
+        for (int i = 0; i < components.size(); i++) {
+            ComponentFootprint footprint = components.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"type\":").append(quote(footprint.component().type().getName()))
+                    .append(",\"qualifier\":").append(footprint.component().qualifiers() == null ? "null" : quote(footprint.component().qualifiers().toString()))
+                    .append(",\"provider\":").append(quote(footprint.provider()))
+                    .append(",\"instances\":").append(footprint.instances())
+                    .append(",\"retainedBytes\":").append(footprint.retainedBytes())
+                    .append(",\"providerBytes\":").append(footprint.providerBytes())
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) quoted.append(String.format("\\u%04x", (int) c));
+                    else quoted.append(c);
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
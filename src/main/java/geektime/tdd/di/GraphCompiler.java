@@ -0,0 +1,125 @@
+package geektime.tdd.di;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static java.lang.invoke.MethodType.methodType;
+
+class GraphCompiler {
+    private static final MethodHandle RESOLVE;
+
+    static {
+        try {
+            RESOLVE = MethodHandles.lookup().findStatic(GraphCompiler.class, "resolve", methodType(Object.class, Context.class, ComponentRef.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Function<Component, ContextConfig.ComponentProvider<?>> components;
+    private final int maxGraphSize;
+
+    GraphCompiler(Function<Component, ContextConfig.ComponentProvider<?>> components, int maxGraphSize) {
+        this.components = components;
+        this.maxGraphSize = maxGraphSize;
+    }
+
+    ContextConfig.ComponentProvider<?> compile(Component root, Context context) {
+        ContextConfig.ComponentProvider<?> provider = components.apply(root);
+        if (!(provider instanceof InjectionProvider<?> prototype)) return provider;
+        try {
+            int[] size = {0};
+            MethodHandle factory = compile(prototype, context, size);
+            return new CompiledProvider<>(factory.asType(methodType(Object.class)), provider, size[0]);
+        } catch (IllegalAccessException | InaccessibleObjectException | WrongMethodTypeException e) {
+            CompilationFallbackEvent event = new CompilationFallbackEvent();
+            if (event.shouldCommit()) {
+                event.componentType = root.type();
+                event.qualifier = Objects.toString(root.qualifiers(), null);
+                event.reason = e.toString();
+                event.commit();
+            }
+            return provider;
+        }
+    }
+
+    private MethodHandle compile(InjectionProvider<?> provider, Context context, int[] size) throws IllegalAccessException {
+        size[0]++;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        InjectionProvider.Injectable<? extends Constructor<?>> constructor = provider.injectConstructor();
+        Constructor<?> instantiation = provider.instantiation();
+        instantiation.setAccessible(true);
+        MethodHandle factory = supply(lookup.unreflectConstructor(instantiation), 0, constructor.required(), context, size);
+
+        List<MethodHandle> steps = new ArrayList<>();
+        for (InjectionProvider.Injectable<?> member : provider.injectMembers()) {
+            if (member.element() instanceof Field field) {
+                steps.add(supply(lookup.unreflectSetter(field), 1, member.required(), context, size));
+                continue;
+            }
+            MethodHandle invoker = lookup.unreflect((Method) member.element());
+            steps.add(supply(invoker.asType(invoker.type().changeReturnType(void.class)), 1, member.required(), context, size));
+        }
+        for (Method postConstruct : provider.postConstructs()) {
+            MethodHandle invoker = lookup.unreflect(postConstruct);
+            steps.add(invoker.asType(invoker.type().changeReturnType(void.class)));
+        }
+
+        Class<?> type = factory.type().returnType();
+        MethodHandle injector = MethodHandles.identity(type);
+        for (int i = steps.size() - 1; i >= 0; i--)
+            injector = MethodHandles.foldArguments(injector, steps.get(i).asType(methodType(void.class, type)));
+        return MethodHandles.filterReturnValue(factory, injector);
+    }
+
+    private MethodHandle supply(MethodHandle target, int position, ComponentRef<?>[] required, Context context, int[] size)
+            throws IllegalAccessException {
+        MethodHandle supplied = target;
+        for (ComponentRef<?> dependency : required) {
+            Class<?> parameter = supplied.type().parameterType(position);
+            supplied = MethodHandles.collectArguments(supplied, position, dependency(dependency, context, size).asType(methodType(parameter)));
+        }
+        return supplied;
+    }
+
+    private MethodHandle dependency(ComponentRef<?> dependency, Context context, int[] size) throws IllegalAccessException {
+        if (!dependency.isContainer() && size[0] < maxGraphSize
+                && components.apply(dependency.component()) instanceof InjectionProvider<?> prototype)
+            return compile(prototype, context, size);
+        return MethodHandles.insertArguments(RESOLVE, 0, context, dependency);
+    }
+
+    private static Object resolve(Context context, ComponentRef<?> ref) {
+        return context.get(ref).get();
+    }
+
+    record CompiledProvider<T>(MethodHandle factory, ContextConfig.ComponentProvider<T> source, int size)
+            implements ContextConfig.ComponentProvider<T> {
+        @Override
+        public T get(Context context) {
+            try {
+                Object instance = factory.invokeExact();
+                return (T) instance;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public List<ComponentRef<?>> getDependencies() {
+            return source.getDependencies();
+        }
+    }
+}
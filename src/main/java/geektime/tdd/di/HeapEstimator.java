@@ -0,0 +1,98 @@
+package geektime.tdd.di;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+class HeapEstimator {
+    private static final int OBJECT_HEADER_BYTES = 12;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int NODE_BYTES = 32;
+    private static final int ALIGNMENT = 8;
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> boundary;
+    private final Map<Class<?>, Layout> layouts = new HashMap<>();
+
+    HeapEstimator(Set<Object> boundary) {
+        this.boundary = boundary;
+    }
+
+    long retained(Object root) {
+        long bytes = 0;
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Object current = pending.pop();
+            if (!visited.add(current)) continue;
+            Class<?> type = current.getClass();
+            if (type.isArray()) {
+                bytes += align(ARRAY_HEADER_BYTES + (long) Array.getLength(current) * elementBytes(type.getComponentType()));
+                if (!type.getComponentType().isPrimitive())
+                    for (Object element : (Object[]) current) follow(element, pending);
+                continue;
+            }
+            Layout layout = layouts.computeIfAbsent(type, Layout::of);
+            bytes += layout.shallow;
+            if (current instanceof String string) {
+                bytes += align(ARRAY_HEADER_BYTES + string.length());
+            } else if (layout.opaque && current instanceof Map<?, ?> map) {
+                bytes += (long) map.size() * NODE_BYTES;
+                map.forEach((key, value) -> {
+                    follow(key, pending);
+                    follow(value, pending);
+                });
+            } else if (layout.opaque && current instanceof Collection<?> collection) {
+                bytes += (long) collection.size() * REFERENCE_BYTES;
+                collection.forEach(element -> follow(element, pending));
+            } else {
+                for (Field field : layout.references) {
+                    try {
+                        follow(field.get(current), pending);
+                    } catch (IllegalAccessException ignored) {
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private void follow(Object reference, Deque<Object> pending) {
+        if (reference == null || boundary.contains(reference) || visited.contains(reference)) return;
+        if (reference instanceof Class<?> || reference instanceof ClassLoader || reference instanceof Thread
+                || reference instanceof Module || reference instanceof Context) return;
+        pending.push(reference);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static int elementBytes(Class<?> type) {
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        if (type == byte.class || type == boolean.class) return 1;
+        return REFERENCE_BYTES;
+    }
+
+    private record Layout(long shallow, List<Field> references, boolean opaque) {
+        static Layout of(Class<?> type) {
+            long bytes = OBJECT_HEADER_BYTES;
+            List<Field> references = new ArrayList<>();
+            boolean opaque = false;
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) continue;
+                    bytes += elementBytes(field.getType());
+                    if (field.getType().isPrimitive()) continue;
+                    if (field.trySetAccessible()) references.add(field);
+                    else opaque = true;
+                }
+            }
+            return new Layout(align(bytes), references, opaque);
+        }
+    }
+}
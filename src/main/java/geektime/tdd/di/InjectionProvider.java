@@ -1,5 +1,7 @@
 package geektime.tdd.di;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Qualifier;
 
@@ -14,34 +16,117 @@ import static java.util.stream.Stream.concat;
 
 class InjectionProvider<T> implements ContextConfig.ComponentProvider<T> {
     private Injectable<Constructor<T>> injectConstructor;
+    private volatile Constructor<? extends T> instantiation;
     private List<Injectable<Method>> injectMethods;
     private List<Injectable<Field>> injectFields;
+    private List<Injectable<?>> injectMembers;
+    private List<Method> postConstructs;
+    private List<Method> preDestroys;
 
     public InjectionProvider(Class<T> component) {
         if (Modifier.isAbstract(component.getModifiers())) throw new IllegalComponentException();
         this.injectConstructor = getInjectConstructor(component);
+        this.instantiation = injectConstructor.element();
         this.injectMethods = getInjectMethods(component);
         this.injectFields = getInjectFields(component);
         if (injectFields.stream().anyMatch(f -> Modifier.isFinal(f.element().getModifiers())))
             throw new IllegalComponentException();
         if (injectMethods.stream().anyMatch(m -> m.element().getTypeParameters().length != 0))
             throw new IllegalComponentException();
+        this.injectMembers = inInjectionOrder(component, injectFields, injectMethods);
+        this.postConstructs = getLifecycleMethods(component, PostConstruct.class);
+        this.preDestroys = getLifecycleMethods(component, PreDestroy.class);
+        Collections.reverse(preDestroys);
     }
 
     @Override
     public T get(Context context) {
+        ComponentConstructionEvent event = new ComponentConstructionEvent();
+        event.begin();
+        T instance = construct(context);
+        event.end();
+        if (event.shouldCommit()) {
+            event.implementation = instance.getClass();
+            event.commit();
+        }
+        return instance;
+    }
+
+    private T construct(Context context) {
         try {
-            T instance = injectConstructor.element().newInstance(injectConstructor.toDependencies(context));
-            for (Injectable<Field> field : injectFields)
-                field.element().set(instance, field.toDependencies(context)[0]);
-            for (Injectable<Method> method : injectMethods)
-                method.element().invoke(instance, method.toDependencies(context));
+            T instance = instantiation.newInstance(injectConstructor.toDependencies(context));
+            for (Injectable<?> member : injectMembers)
+                if (member.element() instanceof Field field) field.set(instance, member.toDependencies(context)[0]);
+                else ((Method) member.element()).invoke(instance, member.toDependencies(context));
+            for (Method postConstruct : postConstructs)
+                postConstruct.invoke(instance);
             return instance;
         } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public void warm(Context context) {
+        Class<?> implementation = injectConstructor.element().getDeclaringClass();
+        try {
+            Class.forName(implementation.getName(), true, implementation.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalComponentException();
+        }
+    }
+
+    @Override
+    public void destroy(T instance) {
+        try {
+            for (Method preDestroy : preDestroys)
+                preDestroy.invoke(instance);
+        } catch (InvocationTargetException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void intercept(Interception interception) {
+        Class<T> implementation = injectConstructor.element().getDeclaringClass();
+        Class<? extends T> subclass = interception.subclass(implementation);
+        try {
+            if (subclass == implementation) {
+                instantiation = injectConstructor.element();
+                return;
+            }
+            Constructor<? extends T> constructor = subclass.getDeclaredConstructor(injectConstructor.element().getParameterTypes());
+            constructor.setAccessible(true);
+            instantiation = constructor;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalComponentException();
+        }
+    }
+
+    Injectable<Constructor<T>> injectConstructor() {
+        return injectConstructor;
+    }
+
+    Constructor<? extends T> instantiation() {
+        return instantiation;
+    }
+
+    List<Injectable<Field>> injectFields() {
+        return injectFields;
+    }
+
+    List<Injectable<Method>> injectMethods() {
+        return injectMethods;
+    }
+
+    List<Injectable<?>> injectMembers() {
+        return injectMembers;
+    }
+
+    List<Method> postConstructs() {
+        return postConstructs;
+    }
+
     @Override
     public List<ComponentRef<?>> getDependencies() {
         return concat(concat(Stream.of(injectConstructor), injectFields.stream()), injectMethods.stream())
@@ -79,26 +164,55 @@ class InjectionProvider<T> implements ContextConfig.ComponentProvider<T> {
 
     private static <T> List<Injectable<Method>> getInjectMethods(Class<T> component) {
         List<Method> injectMethods = traverse(component, (methods, current) -> injectable(current.getDeclaredMethods())
-                .filter(m -> isOverrideByInjectMethod(methods, m))
-                .filter(m -> isOverrideByNoInjectMethod(component, m)).toList());
+                .filter(m -> isNotOverridden(component, current, m)).toList());
         Collections.reverse(injectMethods);
         return injectMethods.stream().map(Injectable::of).toList();
     }
 
+    private static List<Injectable<?>> inInjectionOrder(Class<?> component, List<Injectable<Field>> fields, List<Injectable<Method>> methods) {
+        List<Class<?>> hierarchy = traverse(component, (classes, current) -> List.of(current));
+        Collections.reverse(hierarchy);
+        List<Injectable<?>> members = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            fields.stream().filter(f -> f.element().getDeclaringClass() == current).forEach(members::add);
+            methods.stream().filter(m -> m.element().getDeclaringClass() == current).forEach(members::add);
+        }
+        return members;
+    }
+
     private static <T> List<Injectable<Field>> getInjectFields(Class<T> component) {
         return InjectionProvider.<Field>traverse(component, (fields, current) -> injectable(current.getDeclaredFields()).toList())
                 .stream().map(Injectable::of).toList();
     }
 
+    private static List<Method> getLifecycleMethods(Class<?> component, Class<? extends Annotation> lifecycle) {
+        List<Method> lifecycleMethods = traverse(component, (methods, current) -> stream(current.getDeclaredMethods())
+                .filter(m -> m.isAnnotationPresent(lifecycle))
+                .filter(m -> isNotOverridden(component, current, m)).toList());
+        if (lifecycleMethods.stream().anyMatch(m -> m.getParameterCount() != 0 || Modifier.isStatic(m.getModifiers())))
+            throw new IllegalComponentException();
+        lifecycleMethods.forEach(m -> m.setAccessible(true));
+        Collections.reverse(lifecycleMethods);
+        return lifecycleMethods;
+    }
+
+    private static boolean isNotOverridden(Class<?> component, Class<?> declaring, Method m) {
+        for (Class<?> current = component; current != declaring; current = current.getSuperclass())
+            if (stream(current.getDeclaredMethods()).anyMatch(o -> isOverride(m, o))) return false;
+        return true;
+    }
+
     private static <Type> Injectable<Constructor<Type>> getInjectConstructor(Class<Type> implementation) {
-        List<Constructor<?>> injectConstructors = injectable(implementation.getConstructors()).toList();
+        List<Constructor<?>> injectConstructors = injectable(implementation.getDeclaredConstructors()).toList();
         if (injectConstructors.size() > 1) throw new IllegalComponentException();
         return Injectable.of((Constructor<Type>) injectConstructors.stream().findFirst().orElseGet(() -> defaultConstructor(implementation)));
     }
 
     private static <Type> Constructor<Type> defaultConstructor(Class<Type> implementation) {
         try {
-            return implementation.getDeclaredConstructor();
+            Constructor<Type> constructor = implementation.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
         } catch (NoSuchMethodException e) {
             throw new IllegalComponentException();
         }
@@ -114,19 +228,16 @@ class InjectionProvider<T> implements ContextConfig.ComponentProvider<T> {
         return members;
     }
 
-    private static <T extends AnnotatedElement> Stream<T> injectable(T[] declaredFields) {
-        return stream(declaredFields).filter(f -> f.isAnnotationPresent(Inject.class));
+    private static <T extends AccessibleObject & Member> Stream<T> injectable(T[] declaredMembers) {
+        return stream(declaredMembers).filter(m -> m.isAnnotationPresent(Inject.class))
+                .filter(m -> !Modifier.isStatic(m.getModifiers()))
+                .peek(m -> m.setAccessible(true));
     }
 
     private static boolean isOverride(Method m, Method o) {
-        return o.getName().equals(m.getName()) && Arrays.equals(o.getParameterTypes(), m.getParameterTypes());
-    }
-
-    private static <T> boolean isOverrideByNoInjectMethod(Class<T> component, Method m) {
-        return stream(component.getDeclaredMethods()).filter(m1 -> !m1.isAnnotationPresent(Inject.class)).noneMatch(o -> isOverride(m, o));
-    }
-
-    private static boolean isOverrideByInjectMethod(List<Method> injectMethods, Method m) {
-        return injectMethods.stream().noneMatch(o -> isOverride(m, o));
+        return o.getName().equals(m.getName()) && Arrays.equals(o.getParameterTypes(), m.getParameterTypes())
+                && !Modifier.isPrivate(m.getModifiers()) && !Modifier.isStatic(o.getModifiers())
+                && (Modifier.isPublic(m.getModifiers()) || Modifier.isProtected(m.getModifiers())
+                || m.getDeclaringClass().getPackageName().equals(o.getDeclaringClass().getPackageName()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package geektime.tdd.di;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.MethodDelegation;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static net.bytebuddy.matcher.ElementMatchers.is;
+
+class Interception {
+    private static final AtomicInteger generated = new AtomicInteger();
+
+    private final Map<Class<? extends Annotation>, List<MethodInterceptor>> interceptors = new LinkedHashMap<>();
+    private final Map<Class<?>, Class<?>> subclasses = new ConcurrentHashMap<>();
+
+    void add(Class<? extends Annotation> binding, MethodInterceptor interceptor) {
+        interceptors.computeIfAbsent(binding, b -> new ArrayList<>()).add(interceptor);
+        subclasses.clear();
+    }
+
+    boolean isEmpty() {
+        return interceptors.isEmpty();
+    }
+
+    <T> Class<? extends T> subclass(Class<T> implementation) {
+        return (Class<? extends T>) subclasses.computeIfAbsent(implementation, this::generate);
+    }
+
+    private Class<?> generate(Class<?> implementation) {
+        Map<Method, List<MethodInterceptor>> intercepted = new LinkedHashMap<>();
+        for (Method method : interceptable(implementation)) {
+            List<MethodInterceptor> chain = interceptors.entrySet().stream()
+                    .filter(binding -> method.isAnnotationPresent(binding.getKey()) || implementation.isAnnotationPresent(binding.getKey()))
+                    .flatMap(binding -> binding.getValue().stream()).toList();
+            if (!chain.isEmpty()) intercepted.put(method, chain);
+        }
+        if (intercepted.isEmpty()) return implementation;
+        if (Modifier.isFinal(implementation.getModifiers())) throw new IllegalComponentException();
+        try {
+            DynamicType.Builder<?> builder = new ByteBuddy().subclass(implementation, ConstructorStrategy.Default.IMITATE_SUPER_CLASS)
+                    .name(implementation.getName() + "$$Intercepted$" + generated.incrementAndGet());
+            for (Map.Entry<Method, List<MethodInterceptor>> method : intercepted.entrySet())
+                builder = builder.method(is(method.getKey())).intercept(MethodDelegation.to(new InterceptorChain(method.getValue())));
+            return builder.make().load(implementation.getClassLoader(),
+                    ClassLoadingStrategy.UsingLookup.of(MethodHandles.privateLookupIn(implementation, MethodHandles.lookup()))).getLoaded();
+        } catch (IllegalAccessException | IllegalArgumentException | IllegalStateException e) {
+            throw new IllegalComponentException();
+        }
+    }
+
+    private static List<Method> interceptable(Class<?> implementation) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Class<?> current = implementation; current != Object.class; current = current.getSuperclass())
+            for (Method method : current.getDeclaredMethods())
+                methods.putIfAbsent(method.getName() + Arrays.toString(method.getParameterTypes()), method);
+        return methods.values().stream().filter(m -> !m.isSynthetic() && !m.isBridge())
+                .filter(m -> (m.getModifiers() & (Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL)) == 0)
+                .filter(m -> Stream.of(Inject.class, PostConstruct.class, PreDestroy.class).noneMatch(m::isAnnotationPresent))
+                .toList();
+    }
+}
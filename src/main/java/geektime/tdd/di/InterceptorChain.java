@@ -0,0 +1,58 @@
+package geektime.tdd.di;
+
+import net.bytebuddy.implementation.bind.annotation.*;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public final class InterceptorChain {
+    private final MethodInterceptor[] interceptors;
+
+    InterceptorChain(List<MethodInterceptor> interceptors) {
+        this.interceptors = interceptors.toArray(MethodInterceptor[]::new);
+    }
+
+    @RuntimeType
+    public Object intercept(@This Object target, @Origin Method method, @AllArguments Object[] arguments,
+                            @SuperCall Callable<?> proceed) throws Exception {
+        return new Step(target, method, arguments, proceed, 0).proceed();
+    }
+
+    private class Step implements Invocation {
+        private final Object target;
+        private final Method method;
+        private final Object[] arguments;
+        private final Callable<?> original;
+        private final int index;
+
+        Step(Object target, Method method, Object[] arguments, Callable<?> original, int index) {
+            this.target = target;
+            this.method = method;
+            this.arguments = arguments;
+            this.original = original;
+            this.index = index;
+        }
+
+        @Override
+        public Object target() {
+            return target;
+        }
+
+        @Override
+        public Method method() {
+            return method;
+        }
+
+        @Override
+        public Object[] arguments() {
+            return arguments;
+        }
+
+        @Override
+        public Object proceed() throws Exception {
+            if (index == interceptors.length) return original.call();
+            return interceptors[index].intercept(new Step(target, method, arguments, original, index + 1));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package geektime.tdd.di;
+
+import java.lang.reflect.Method;
+
+public interface Invocation {
+    Object target();
+
+    Method method();
+
+    Object[] arguments();
+
+    Object proceed() throws Exception;
+}
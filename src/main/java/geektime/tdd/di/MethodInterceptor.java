@@ -0,0 +1,5 @@
+package geektime.tdd.di;
+
+public interface MethodInterceptor {
+    Object intercept(Invocation invocation) throws Exception;
+}
@@ -0,0 +1,49 @@
+package geektime.tdd.di;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+
+class ProvidesProvider<T> implements ContextConfig.ComponentProvider<T> {
+    private InjectionProvider.Injectable<Method> provides;
+    private MethodHandle factory;
+
+    public ProvidesProvider(Object module, Method method) {
+        if (method.getReturnType() == void.class || method.getTypeParameters().length != 0)
+            throw new IllegalComponentException();
+        this.provides = InjectionProvider.Injectable.of(method);
+        this.factory = factoryOf(module, method);
+    }
+
+    private static MethodHandle factoryOf(Object module, Method method) {
+        try {
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) handle = handle.bindTo(module);
+            return handle.asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalComponentException();
+        }
+    }
+
+    @Override
+    public T get(Context context) {
+        try {
+            return (T) (Object) factory.invokeExact(provides.toDependencies(context));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public List<ComponentRef<?>> getDependencies() {
+        return Arrays.asList(provides.required());
+    }
+}
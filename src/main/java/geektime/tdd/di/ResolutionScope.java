@@ -0,0 +1,70 @@
+package geektime.tdd.di;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class ResolutionScope implements ContextConfig.ScopeProvider {
+    private static final ThreadLocal<Resolution> current = new ThreadLocal<>();
+
+    static <T> T resolving(Supplier<T> resolution) {
+        if (current.get() != null) return resolution.get();
+        current.set(new Resolution());
+        try {
+            return resolution.get();
+        } finally {
+            current.remove();
+        }
+    }
+
+    @Override
+    public ContextConfig.ComponentProvider<?> create(Component component, ContextConfig.ComponentProvider<?> provider) {
+        return new ResolutionProvider<>(component, provider);
+    }
+
+    private static class Resolution {
+        private Map<Component, Object> instances;
+
+        Object get(Component component) {
+            return instances == null ? null : instances.get(component);
+        }
+
+        void put(Component component, Object instance) {
+            if (instances == null) instances = new HashMap<>();
+            instances.put(component, instance);
+        }
+    }
+
+    static class ResolutionProvider<T> implements ContextConfig.ComponentProvider<T> {
+        private final Component component;
+        private final ContextConfig.ComponentProvider<T> provider;
+
+        ResolutionProvider(Component component, ContextConfig.ComponentProvider<?> provider) {
+            this.component = component;
+            this.provider = (ContextConfig.ComponentProvider<T>) provider;
+        }
+
+        @Override
+        public T get(Context context) {
+            Resolution resolution = current.get();
+            if (resolution == null) return provider.get(context);
+            T instance = (T) resolution.get(component);
+            if (instance == null) {
+                instance = provider.get(context);
+                resolution.put(component, instance);
+            }
+            return instance;
+        }
+
+        @Override
+        public List<ComponentRef<?>> getDependencies() {
+            return provider.getDependencies();
+        }
+
+        @Override
+        public void intercept(Interception interception) {
+            provider.intercept(interception);
+        }
+    }
+}
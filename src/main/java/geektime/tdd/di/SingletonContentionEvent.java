@@ -0,0 +1,17 @@
+package geektime.tdd.di;
+
+import jdk.jfr.*;
+
+@Name("geektime.tdd.di.SingletonContention")
+@Label("Singleton Contention")
+@Category("Dependency Injection")
+@Description("Thread blocked while another thread creates the same singleton")
+@StackTrace(false)
+@Threshold("1 ms")
+class SingletonContentionEvent extends Event {
+    @Label("Component Type")
+    Class<?> componentType;
+
+    @Label("Qualifier")
+    String qualifier;
+}
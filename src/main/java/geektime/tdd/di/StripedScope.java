@@ -0,0 +1,133 @@
+package geektime.tdd.di;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+public class StripedScope implements ContextConfig.ScopeProvider {
+    private static final AtomicInteger probes = new AtomicInteger();
+    private static final ThreadLocal<Integer> probe = ThreadLocal.withInitial(() -> probes.getAndAdd(0x9e3779b9));
+
+    private final int mask;
+    private final Map<Component, CopyOnWriteArrayList<StripedProvider<?>>> striped = new ConcurrentHashMap<>();
+
+    public static StripedScope perCore() {
+        return of(Runtime.getRuntime().availableProcessors());
+    }
+
+    public static StripedScope of(int stripes) {
+        if (stripes <= 0) throw new IllegalArgumentException();
+        return new StripedScope(stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1);
+    }
+
+    private StripedScope(int stripes) {
+        this.mask = stripes - 1;
+    }
+
+    public int stripes() {
+        return mask + 1;
+    }
+
+    @Override
+    public ContextConfig.ComponentProvider<?> create(Component component, ContextConfig.ComponentProvider<?> provider) {
+        StripedProvider<?> stripes = new StripedProvider<>(component, provider, mask + 1, false);
+        striped.put(component, new CopyOnWriteArrayList<>(List.of(stripes)));
+        return stripes;
+    }
+
+    @Override
+    public ContextConfig.ScopeProvider fork() {
+        return new StripedScope(mask + 1);
+    }
+
+    public <T, R> R aggregate(Component component, Function<? super List<T>, R> aggregator) {
+        List<StripedProvider<?>> providers = striped.get(component);
+        if (providers == null) throw new IllegalArgumentException();
+        List<T> created = new ArrayList<>();
+        for (StripedProvider<?> stripes : providers) created.addAll(((StripedProvider<T>) stripes).created());
+        return aggregator.apply(created);
+    }
+
+    private class StripedProvider<T> implements ContextConfig.ComponentProvider<T> {
+        private final Component component;
+        private final ContextConfig.ComponentProvider<T> provider;
+        private final AtomicReferenceArray<T> instances;
+        private final boolean forked;
+
+        StripedProvider(Component component, ContextConfig.ComponentProvider<?> provider, int stripes, boolean forked) {
+            this.component = component;
+            this.provider = (ContextConfig.ComponentProvider<T>) provider;
+            this.instances = new AtomicReferenceArray<>(stripes);
+            this.forked = forked;
+        }
+
+        @Override
+        public T get(Context context) {
+            int stripe = probe.get() & mask;
+            T instance = instances.get(stripe);
+            if (instance != null) return instance;
+            T created = provider.get(context);
+            if (instances.compareAndSet(stripe, null, created)) {
+                if (forked) register();
+                return created;
+            }
+            provider.destroy(created);
+            return instances.get(stripe);
+        }
+
+        private void register() {
+            CopyOnWriteArrayList<StripedProvider<?>> providers = striped.get(component);
+            if (providers != null) providers.addIfAbsent(this);
+        }
+
+        List<T> created() {
+            List<T> created = new ArrayList<>(instances.length());
+            for (int i = 0; i < instances.length(); i++) {
+                T instance = instances.get(i);
+                if (instance != null) created.add(instance);
+            }
+            return created;
+        }
+
+        @Override
+        public List<ComponentRef<?>> getDependencies() {
+            return provider.getDependencies();
+        }
+
+        @Override
+        public void warm(Context context) {
+            get(context);
+        }
+
+        @Override
+        public void intercept(Interception interception) {
+            provider.intercept(interception);
+        }
+
+        @Override
+        public List<Object> instances() {
+            return List.copyOf(created());
+        }
+
+        @Override
+        public ContextConfig.ComponentProvider<T> fork(Function<ContextConfig.ScopeProvider, ContextConfig.ScopeProvider> scopes) {
+            StripedProvider<T> forked = new StripedProvider<>(component, provider, instances.length(), true);
+            forked.register();
+            return forked;
+        }
+
+        @Override
+        public void close() {
+            if (forked) striped.getOrDefault(component, new CopyOnWriteArrayList<>()).remove(this);
+            for (int i = 0; i < instances.length(); i++) {
+                T instance = instances.getAndSet(i, null);
+                if (instance != null) provider.destroy(instance);
+            }
+        }
+    }
+}
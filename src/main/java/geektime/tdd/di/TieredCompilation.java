@@ -0,0 +1,100 @@
+package geektime.tdd.di;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class TieredCompilation {
+    private static final int DEFAULT_MAX_GRAPH_SIZE = 64;
+
+    private final int threshold;
+    private final int maxGraphSize;
+    private final Set<Component> promoted = ConcurrentHashMap.newKeySet();
+
+    public static TieredCompilation after(int invocations) {
+        return after(invocations, DEFAULT_MAX_GRAPH_SIZE);
+    }
+
+    public static TieredCompilation after(int invocations, int maxGraphSize) {
+        if (invocations <= 0 || maxGraphSize <= 0) throw new IllegalArgumentException();
+        return new TieredCompilation(invocations, maxGraphSize);
+    }
+
+    private TieredCompilation(int threshold, int maxGraphSize) {
+        this.threshold = threshold;
+        this.maxGraphSize = maxGraphSize;
+    }
+
+    public Set<Component> promoted() {
+        return Collections.unmodifiableSet(promoted);
+    }
+
+    int maxGraphSize() {
+        return maxGraphSize;
+    }
+
+    ContextConfig.ComponentProvider<?> tier(Component component, ContextConfig.ComponentProvider<?> reflective,
+                                            Supplier<ContextConfig.ComponentProvider<?>> compile) {
+        return new TieredProvider<>(component, reflective, compile);
+    }
+
+    private class TieredProvider<T> implements ContextConfig.ComponentProvider<T> {
+        private final Component component;
+        private final ContextConfig.ComponentProvider<T> reflective;
+        private final Supplier<ContextConfig.ComponentProvider<?>> compile;
+        private final AtomicInteger invocations = new AtomicInteger();
+        private volatile ContextConfig.ComponentProvider<T> current;
+        private volatile boolean tiered;
+
+        TieredProvider(Component component, ContextConfig.ComponentProvider<?> reflective, Supplier<ContextConfig.ComponentProvider<?>> compile) {
+            this.component = component;
+            this.reflective = (ContextConfig.ComponentProvider<T>) reflective;
+            this.compile = compile;
+            this.current = this.reflective;
+        }
+
+        @Override
+        public T get(Context context) {
+            if (!tiered && invocations.incrementAndGet() == threshold) promote();
+            return current.get(context);
+        }
+
+        private void promote() {
+            ContextConfig.ComponentProvider<T> compiled;
+            try {
+                compiled = (ContextConfig.ComponentProvider<T>) compile.get();
+            } catch (RuntimeException e) {
+                CompilationFallbackEvent event = new CompilationFallbackEvent();
+                if (event.shouldCommit()) {
+                    event.componentType = component.type();
+                    event.qualifier = Objects.toString(component.qualifiers(), null);
+                    event.reason = e.toString();
+                    event.commit();
+                }
+                return;
+            } finally {
+                tiered = true;
+            }
+            if (compiled == reflective) return;
+            current = compiled;
+            promoted.add(component);
+            ComponentPromotionEvent event = new ComponentPromotionEvent();
+            if (event.shouldCommit()) {
+                event.componentType = component.type();
+                event.qualifier = Objects.toString(component.qualifiers(), null);
+                event.invocations = threshold;
+                event.graphSize = compiled instanceof GraphCompiler.CompiledProvider<?> graph ? graph.size() : 1;
+                event.commit();
+            }
+        }
+
+        @Override
+        public List<ComponentRef<?>> getDependencies() {
+            return reflective.getDependencies();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package geektime.tdd.di;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+class UsageProfile {
+    private final Path path;
+    private final long started = System.nanoTime();
+    private final Map<Component, Long> firstUse = new ConcurrentHashMap<>();
+
+    UsageProfile(Path path) {
+        this.path = path;
+    }
+
+    void record(Component component) {
+        if (!firstUse.containsKey(component)) firstUse.putIfAbsent(component, System.nanoTime() - started);
+    }
+
+    List<Component> recorded(DependencyGraph graph) {
+        if (!Files.exists(path)) return List.of();
+        Map<String, Component> components = new HashMap<>();
+        for (int id = 0; id < graph.size(); id++) components.put(key(graph.component(id)), graph.component(id));
+        try {
+            return Files.readAllLines(path).stream()
+                    .map(line -> components.get(line.substring(line.indexOf('\t') + 1)))
+                    .filter(Objects::nonNull).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void save() {
+        List<String> lines = firstUse.entrySet().stream().sorted(Map.Entry.comparingByValue())
+                .map(use -> use.getValue() / 1_000 + "\t" + key(use.getKey())).toList();
+        try {
+            Files.write(path, lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String key(Component component) {
+        return component.type().getName() + "\t" + component.qualifiers();
+    }
+}
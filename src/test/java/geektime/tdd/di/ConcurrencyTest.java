@@ -0,0 +1,117 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Nested
+public class ConcurrencyTest {
+    private static final int THREADS = 32;
+
+    ContextConfig config;
+    Counter counter = new Counter();
+
+    @BeforeEach
+    public void setup() {
+        config = new ContextConfig();
+        config.bind(Counter.class, counter);
+    }
+
+    static class Counter {
+        final AtomicInteger constructed = new AtomicInteger();
+    }
+
+    @Singleton
+    static class SlowSingleton {
+        @Inject
+        public SlowSingleton(Counter counter) throws InterruptedException {
+            counter.constructed.incrementAndGet();
+            Thread.sleep(20);
+        }
+    }
+
+    static class Prototype {
+        @Inject
+        SlowSingleton singleton;
+        @Inject
+        Provider<SlowSingleton> singletons;
+    }
+
+    @Test
+    public void should_construct_singleton_exactly_once_under_concurrent_get() throws Exception {
+        config.bind(SlowSingleton.class, SlowSingleton.class);
+        Context context = config.getContext();
+
+        List<Object> instances = hammer(() -> context.get(ComponentRef.of(SlowSingleton.class)).get());
+
+        assertEquals(1, counter.constructed.get());
+        assertEquals(1, Set.copyOf(instances).size());
+    }
+
+    @Test
+    public void should_construct_singleton_exactly_once_under_concurrent_provider_get() throws Exception {
+        config.bind(SlowSingleton.class, SlowSingleton.class);
+        Provider<SlowSingleton> provider = config.getContext().get(new ComponentRef<Provider<SlowSingleton>>() {
+        }).get();
+
+        List<Object> instances = hammer(provider::get);
+
+        assertEquals(1, counter.constructed.get());
+        assertEquals(1, Set.copyOf(instances).size());
+    }
+
+    @Test
+    public void should_share_singleton_between_concurrently_built_prototypes() throws Exception {
+        config.bind(SlowSingleton.class, SlowSingleton.class);
+        config.bind(Prototype.class, Prototype.class);
+        config.compilePrototypeGraphs(8);
+        Context context = config.getContext();
+
+        List<Prototype> prototypes = hammer(() -> context.get(ComponentRef.of(Prototype.class)).get());
+
+        assertEquals(1, counter.constructed.get());
+        assertEquals(THREADS, Set.copyOf(prototypes).size());
+        assertTrue(prototypes.stream().allMatch(p -> p.singleton == p.singletons.get()));
+    }
+
+    @Test
+    public void should_construct_singleton_exactly_once_through_binding_handle() throws Exception {
+        config.bind(SlowSingleton.class, SlowSingleton.class);
+        Binding<SlowSingleton> binding = config.getContext().handle(ComponentRef.of(SlowSingleton.class)).get();
+
+        List<Object> instances = hammer(binding::get);
+
+        assertEquals(1, counter.constructed.get());
+        assertEquals(1, Set.copyOf(instances).size());
+    }
+
+    private <T> List<T> hammer(Supplier<T> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = IntStream.range(0, THREADS).mapToObj(i -> executor.submit(() -> {
+                start.await();
+                return action.get();
+            })).toList();
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) results.add(future.get(10, TimeUnit.SECONDS));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
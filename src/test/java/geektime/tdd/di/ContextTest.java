@@ -1,22 +1,45 @@
 package geektime.tdd.di;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Named;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.internal.util.collections.Sets;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
 
 @Nested
 class ContextTest {
@@ -27,183 +50,2185 @@ class ContextTest {
         config = new ContextConfig();
     }
 
+    static List<RecordedEvent> recordedEvents(String eventName, Runnable action) throws IOException {
+        return recordedEvents(List.of(eventName), action);
+    }
+
+    static List<RecordedEvent> recordedEvents(List<String> eventNames, Runnable action) throws IOException {
+        Path dump = Files.createTempFile("events", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                eventNames.forEach(name -> recording.enable(name).withThreshold(Duration.ZERO));
+                recording.start();
+                action.run();
+                recording.stop();
+                recording.dump(dump);
+            }
+            return RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.delete(dump);
+        }
+    }
+
+
+    @Nested
+    public class DependenciesSelection {
+
+        @Nested
+        public class ProviderType {
+        }
+
+        @Nested
+        public class Qualifier {
+        }
+    }
+
+    @Nested
+    public class LifecycleManagement {
+        static class Events {
+            final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        }
+
+        Events events = new Events();
+
+        @BeforeEach
+        public void setup() {
+            config.bind(Events.class, events);
+        }
+
+        @Singleton
+        static class Repository {
+            @Inject
+            Events events;
+
+            @PreDestroy
+            void close() {
+                events.events.add("repository");
+            }
+        }
+
+        @Singleton
+        static class Service {
+            @Inject
+            Events events;
+            @Inject
+            Repository repository;
+
+            @PreDestroy
+            void close() {
+                events.events.add("service");
+            }
+        }
+
+        @Singleton
+        static class Handler {
+            @Inject
+            Events events;
+            @Inject
+            Service service;
+
+            @PreDestroy
+            void close() {
+                events.events.add("handler");
+            }
+        }
+
+        static class Prototype {
+            @Inject
+            Events events;
+
+            @PreDestroy
+            void close() {
+                events.events.add("prototype");
+            }
+        }
+
+        @Test
+        public void should_destroy_cached_instances_in_reverse_dependency_order() {
+            config.bind(Repository.class, Repository.class);
+            config.bind(Service.class, Service.class);
+            config.bind(Handler.class, Handler.class);
+
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Handler.class)).get();
+            context.close();
+
+            assertEquals(List.of("handler", "service", "repository"), events.events);
+        }
+
+        @Test
+        public void should_destroy_internal_components_of_module_in_reverse_dependency_order() {
+            ContextConfig module = new ContextConfig();
+            module.bind(Repository.class, Repository.class);
+            module.bind(Service.class, Service.class);
+            module.bind(Handler.class, Handler.class);
+            config.include(module.module(ComponentRef.of(Handler.class)));
+
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Handler.class)).get();
+            context.close();
+
+            assertEquals(List.of("handler", "service", "repository"), events.events);
+        }
+
+        @Test
+        public void should_destroy_through_non_cached_dependents() {
+            config.bind(Repository.class, Repository.class);
+            config.bind(Service.class, Service.class, new CachedLiteral());
+            config.bind(Handler.class, Handler.class);
+
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Handler.class)).get();
+            context.close();
+
+            assertEquals(List.of("handler", "service", "repository"), events.events);
+        }
+
+        @Test
+        public void should_only_destroy_instances_created_by_context() {
+            config.bind(Repository.class, Repository.class);
+            config.bind(Prototype.class, Prototype.class);
+
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Prototype.class)).get();
+            context.close();
+
+            assertTrue(events.events.isEmpty());
+        }
+
+        @Test
+        public void should_recreate_singleton_after_closed() {
+            config.bind(Repository.class, Repository.class);
+
+            Context context = config.getContext();
+            Repository repository = context.get(ComponentRef.of(Repository.class)).get();
+            context.close();
+
+            assertNotSame(repository, context.get(ComponentRef.of(Repository.class)).get());
+        }
+    }
+
+    @Nested
+    public class PrototypeGraphCompilation {
+        static class Repository {
+            boolean initialized = false;
+
+            @PostConstruct
+            void init() {
+                initialized = true;
+            }
+        }
+
+        static class Service {
+            @Inject
+            Repository repository;
+            Dependency dependency;
+
+            @Inject
+            void install(Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        static class Handler {
+            Service service;
+            Provider<Service> services;
+
+            @Inject
+            public Handler(Service service, Provider<Service> services) {
+                this.service = service;
+                this.services = services;
+            }
+        }
+
+        Dependency dependency = new Dependency() {
+        };
+
+        @BeforeEach
+        public void setup() {
+            config.bind(Dependency.class, dependency);
+            config.bind(Repository.class, Repository.class);
+            config.bind(Service.class, Service.class);
+            config.bind(Handler.class, Handler.class);
+        }
+
+        @ParameterizedTest(name = "max graph size {0}")
+        @ValueSource(ints = {1, 2, 3})
+        public void should_construct_whole_prototype_graph_through_compiled_factory(int maxGraphSize) {
+            config.compilePrototypeGraphs(maxGraphSize);
+            Context context = config.getContext();
+
+            Handler handler = context.get(ComponentRef.of(Handler.class)).get();
+
+            assertSame(dependency, handler.service.dependency);
+            assertTrue(handler.service.repository.initialized);
+            assertNotSame(handler.service, handler.services.get());
+            assertNotSame(handler, context.get(ComponentRef.of(Handler.class)).get());
+        }
+
+        @Test
+        public void should_keep_scoped_dependency_outside_compiled_graph() {
+            config.bind(Repository.class, Repository.class, new SingletonLiteral());
+            config.compilePrototypeGraphs(10);
+            Context context = config.getContext();
+
+            Service first = context.get(ComponentRef.of(Service.class)).get();
+            Service second = context.get(ComponentRef.of(Service.class)).get();
+
+            assertSame(first.repository, second.repository);
+        }
+
+        @Test
+        public void should_promote_component_to_compiled_factory_after_threshold() {
+            TieredCompilation tiered = TieredCompilation.after(3);
+            config.compileHotComponents(tiered);
+            Context context = config.getContext();
+
+            context.get(ComponentRef.of(Handler.class)).get();
+            context.get(ComponentRef.of(Handler.class)).get();
+            assertTrue(tiered.promoted().isEmpty());
+
+            context.get(ComponentRef.of(Handler.class)).get();
+            Handler handler = context.get(ComponentRef.of(Handler.class)).get();
+
+            assertEquals(Set.of(new Component(Handler.class, null)), tiered.promoted());
+            assertSame(dependency, handler.service.dependency);
+            assertTrue(handler.service.repository.initialized);
+        }
+
+        @Test
+        public void should_not_promote_non_injection_provider() {
+            TieredCompilation tiered = TieredCompilation.after(1);
+            config.compileHotComponents(tiered);
+            Context context = config.getContext();
+
+            context.get(ComponentRef.of(Dependency.class)).get();
+            context.get(ComponentRef.of(Dependency.class)).get();
+
+            assertTrue(tiered.promoted().isEmpty());
+        }
+
+        @Test
+        public void should_stay_reflective_and_stop_counting_if_promotion_fails() throws IOException {
+            TieredCompilation tiered = TieredCompilation.after(2);
+            Component component = new Component(Dependency.class, null);
+            Dependency dependency = new Dependency() {
+            };
+            AtomicInteger compilations = new AtomicInteger();
+            ContextConfig.ComponentProvider<?> provider = tiered.tier(component, context -> dependency, () -> {
+                compilations.incrementAndGet();
+                throw new IllegalStateException();
+            });
+
+            List<RecordedEvent> events = recordedEvents("geektime.tdd.di.CompilationFallback", () -> {
+                for (int i = 0; i < 5; i++) assertSame(dependency, provider.get(null));
+            });
+
+            assertEquals(1, compilations.get());
+            assertTrue(tiered.promoted().isEmpty());
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("geektime.tdd.di.CompilationFallback")
+                    && e.getClass("componentType").getName().equals(Dependency.class.getName())
+                    && e.getString("reason").contains("IllegalStateException")));
+        }
+
+        @Test
+        public void should_promote_once_under_concurrent_invocations() throws Exception {
+            TieredCompilation tiered = TieredCompilation.after(100);
+            config.compileHotComponents(tiered);
+            Context context = config.getContext();
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<CompletableFuture<Handler>> handlers = new ArrayList<>();
+            List<RecordedEvent> events;
+            try {
+                events = recordedEvents("geektime.tdd.di.ComponentPromotion", () -> {
+                    for (int i = 0; i < 1000; i++)
+                        handlers.add(CompletableFuture.supplyAsync(() -> context.get(ComponentRef.of(Handler.class)).get(), executor));
+                    handlers.forEach(CompletableFuture::join);
+                });
+            } finally {
+                executor.shutdown();
+            }
+
+            for (CompletableFuture<Handler> handler : handlers) assertSame(dependency, handler.join().service.dependency);
+
+            assertTrue(tiered.promoted().contains(new Component(Handler.class, null)));
+            assertEquals(1, events.stream().filter(e -> e.getEventType().getName().equals("geektime.tdd.di.ComponentPromotion")
+                    && e.getClass("componentType").getName().equals(Handler.class.getName())).count());
+        }
+
+        @Test
+        public void should_record_promotion_event() throws IOException {
+            config.compileHotComponents(TieredCompilation.after(1));
+            List<RecordedEvent> events = recordedEvents("geektime.tdd.di.ComponentPromotion",
+                    () -> config.getContext().get(ComponentRef.of(Handler.class)).get());
+
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("geektime.tdd.di.ComponentPromotion")
+                    && e.getClass("componentType").getName().equals(Handler.class.getName()) && e.getInt("graphSize") == 3));
+        }
+
+        @Test
+        public void should_record_fallback_event_if_graph_cannot_be_compiled() throws Exception {
+            InjectionProvider<Repository> reflective = spy(new InjectionProvider<>(Repository.class));
+            doReturn(Class.forName("jdk.internal.misc.Unsafe").getDeclaredConstructor()).when(reflective).instantiation();
+            Map<Component, ContextConfig.ComponentProvider<?>> components = Map.of(new Component(Repository.class, null), reflective);
+            Context context = config.getContext();
+
+            List<RecordedEvent> events = recordedEvents("geektime.tdd.di.CompilationFallback",
+                    () -> assertSame(reflective, new GraphCompiler(components::get, 10).compile(new Component(Repository.class, null), context)));
+
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("geektime.tdd.di.CompilationFallback")
+                    && e.getClass("componentType").getName().equals(Repository.class.getName())
+                    && e.getString("reason").contains("InaccessibleObjectException")));
+        }
+
+        @Test
+        public void should_throw_exception_if_tier_threshold_invalid() {
+            assertThrows(IllegalArgumentException.class, () -> TieredCompilation.after(0));
+            assertThrows(IllegalArgumentException.class, () -> TieredCompilation.after(1, 0));
+        }
+
+        @Test
+        public void should_compile_from_validated_graph_not_pending_bindings() {
+            config.bind(TestComponent.class, DependencyCheck.CyclicComponentInjectConstructor.class);
+            config.compilePrototypeGraphs(Integer.MAX_VALUE);
+            Context context = config.getContext();
+            config.bind(Dependency.class, DependencyCheck.CyclicDependencyInjectConstructor.class);
+
+            assertTrue(context.get(ComponentRef.of(TestComponent.class)).isPresent());
+        }
+
+        @Test
+        public void should_stop_inlining_when_graph_size_threshold_reached() {
+            Map<Component, ContextConfig.ComponentProvider<?>> components = Map.of(
+                    new Component(Handler.class, null), new InjectionProvider<>(Handler.class),
+                    new Component(Service.class, null), new InjectionProvider<>(Service.class),
+                    new Component(Repository.class, null), new InjectionProvider<>(Repository.class));
+            Context context = config.getContext();
+
+            assertEquals(3, ((GraphCompiler.CompiledProvider<?>) new GraphCompiler(components::get, 10).compile(new Component(Handler.class, null), context)).size());
+            assertEquals(2, ((GraphCompiler.CompiledProvider<?>) new GraphCompiler(components::get, 2).compile(new Component(Handler.class, null), context)).size());
+        }
+    }
+
+    @Nested
+    public class FlightRecorderEvents {
+        @Test
+        public void should_record_validation_resolution_and_construction() throws IOException {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class, new SkywalkerLiteral());
+
+            List<RecordedEvent> events = recordedEvents(List.of("geektime.tdd.di.ContextValidation",
+                            "geektime.tdd.di.ComponentResolution", "geektime.tdd.di.ComponentConstruction"),
+                    () -> config.getContext().get(ComponentRef.of(TestComponent.class, new SkywalkerLiteral())));
+
+            RecordedEvent validation = events.stream().filter(e -> e.getEventType().getName().equals("geektime.tdd.di.ContextValidation")).findFirst().get();
+            assertEquals(2, validation.getInt("bindingCount"));
+            assertEquals(40, validation.getDouble("mapBytesPerBinding"));
+            assertTrue(validation.getDouble("bytesPerBinding") > validation.getDouble("mapBytesPerBinding"));
+
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("geektime.tdd.di.ComponentResolution")
+                    && e.getClass("componentType").getName().equals(TestComponent.class.getName())
+                    && e.getString("qualifier") != null));
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("geektime.tdd.di.ComponentConstruction")
+                    && e.getClass("implementation").getName().equals(TypeBinding.ConstructorInjection.class.getName())));
+        }
+    }
+
+    @Nested
+    public class ModuleComposition {
+        interface Repository {
+        }
+
+        static class RepositoryImpl implements Repository {
+            @Inject
+            public RepositoryImpl(Dependency dependency) {
+            }
+        }
+
+        static class ServiceComponent implements TestComponent {
+            private Dependency dependency;
+
+            @Inject
+            public ServiceComponent(Dependency dependency, Repository repository) {
+                this.dependency = dependency;
+            }
+
+            @Override
+            public Dependency dependency() {
+                return dependency;
+            }
+        }
+
+        static class DependencyRequiringComponent implements Dependency {
+            @Inject
+            public DependencyRequiringComponent(TestComponent component) {
+            }
+        }
+
+        static class DependencyRequiringComponentProvider implements Dependency {
+            @Inject
+            public DependencyRequiringComponentProvider(Provider<TestComponent> component) {
+            }
+        }
+
+        private ContextModule dependencyModule(Class<? extends Dependency> implementation) {
+            ContextConfig module = new ContextConfig();
+            module.bind(Dependency.class, implementation);
+            return module.module(ComponentRef.of(Dependency.class));
+        }
+
+        private ContextModule serviceModule() {
+            ContextConfig module = new ContextConfig();
+            module.bind(Repository.class, RepositoryImpl.class);
+            module.bind(TestComponent.class, ServiceComponent.class);
+            return module.module(ComponentRef.of(TestComponent.class));
+        }
+
+        static class PlainDependency implements Dependency {
+        }
+
+        @Test
+        public void should_expose_exported_and_required_components_of_module() {
+            ContextModule module = serviceModule();
+
+            assertEquals(Set.of(new Component(TestComponent.class, null)), module.exported());
+            assertEquals(Set.of(new Component(Dependency.class, null)), module.required());
+        }
+
+        @Test
+        public void should_compose_modules_into_context() {
+            config.include(dependencyModule(PlainDependency.class));
+            config.include(serviceModule());
+
+            Context context = config.getContext();
+
+            TestComponent component = context.get(ComponentRef.of(TestComponent.class)).get();
+            assertTrue(component.dependency() instanceof PlainDependency);
+        }
+
+        @Test
+        public void should_not_expose_internal_components_of_module() {
+            config.include(dependencyModule(PlainDependency.class));
+            config.include(serviceModule());
+
+            Context context = config.getContext();
+
+            assertTrue(context.get(ComponentRef.of(Repository.class)).isEmpty());
+        }
+
+        @Test
+        public void should_throw_exception_if_required_component_not_provided() {
+            config.include(serviceModule());
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+            assertEquals(TestComponent.class, exception.getComponent().type());
+            assertEquals(Dependency.class, exception.getDependency().type());
+        }
+
+        @Test
+        public void should_throw_exception_if_cyclic_dependencies_found_between_modules() {
+            config.include(dependencyModule(DependencyRequiringComponent.class));
+            config.include(serviceModule());
+
+            assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+        }
+
+        @Test
+        public void should_not_throw_exception_if_cyclic_dependency_between_modules_via_provider() {
+            config.include(dependencyModule(DependencyRequiringComponentProvider.class));
+            config.include(serviceModule());
+
+            assertDoesNotThrow(() -> config.getContext());
+        }
+
+        @Test
+        public void should_throw_exception_if_cyclic_dependencies_found_inside_module() {
+            ContextConfig module = new ContextConfig();
+            module.bind(TestComponent.class, DependencyCheck.CyclicComponentInjectConstructor.class);
+            module.bind(Dependency.class, DependencyCheck.CyclicDependencyInjectConstructor.class);
+
+            assertThrows(CyclicDependenciesFoundException.class, () -> module.module(ComponentRef.of(TestComponent.class)));
+        }
+
+        @Test
+        public void should_throw_exception_if_export_not_bound_in_module() {
+            assertThrows(IllegalComponentException.class, () -> new ContextConfig().module(ComponentRef.of(TestComponent.class)));
+        }
+    }
+
+    @Nested
+    public class JustInTimeBinding {
+        static class Concrete {
+            Dependency dependency;
+
+            @Inject
+            public Concrete(Dependency dependency) {
+                this.dependency = dependency;
+            }
+        }
+
+        static class TransitiveConcrete {
+            @Inject
+            Concrete concrete;
+        }
+
+        @Singleton
+        static class SingletonConcrete {
+        }
+
+        static class MissingDependencyConcrete {
+            @Inject
+            public MissingDependencyConcrete(TestComponent component) {
+            }
+        }
+
+        static class ComponentRequiringConcrete implements TestComponent {
+            @Inject
+            public ComponentRequiringConcrete(TransitiveConcrete concrete) {
+            }
+        }
+
+        Dependency dependency = new Dependency() {
+        };
+
+        @BeforeEach
+        public void setup() {
+            config.bind(Dependency.class, dependency);
+        }
+
+        @Test
+        public void should_not_bind_unbound_concrete_class_by_default() {
+            assertTrue(config.getContext().get(ComponentRef.of(Concrete.class)).isEmpty());
+        }
+
+        @Test
+        public void should_bind_unbound_concrete_class_on_first_request() {
+            config.allowJustInTimeBindings();
+            Context context = config.getContext();
+
+            assertSame(dependency, context.get(ComponentRef.of(Concrete.class)).get().dependency);
+        }
+
+        @Test
+        public void should_bind_transitive_unbound_concrete_classes() {
+            config.allowJustInTimeBindings();
+            Context context = config.getContext();
+
+            assertSame(dependency, context.get(ComponentRef.of(TransitiveConcrete.class)).get().concrete.dependency);
+        }
+
+        @Test
+        public void should_bind_unbound_concrete_dependency_when_building_context() {
+            config.allowJustInTimeBindings();
+            config.bind(TestComponent.class, ComponentRequiringConcrete.class);
+
+            assertTrue(config.getContext().get(ComponentRef.of(TestComponent.class)).isPresent());
+        }
+
+        @Test
+        public void should_use_scope_declared_on_unbound_concrete_class() {
+            config.allowJustInTimeBindings();
+            Context context = config.getContext();
+
+            assertSame(context.get(ComponentRef.of(SingletonConcrete.class)).get(), context.get(ComponentRef.of(SingletonConcrete.class)).get());
+        }
+
+        @Test
+        public void should_retrieve_empty_for_unbound_interface_or_qualified_component() {
+            config.allowJustInTimeBindings();
+            Context context = config.getContext();
+
+            assertTrue(context.get(ComponentRef.of(TestComponent.class)).isEmpty());
+            assertTrue(context.get(ComponentRef.of(TestComponent.class)).isEmpty());
+            assertTrue(context.get(ComponentRef.of(Concrete.class, new SkywalkerLiteral())).isEmpty());
+        }
+
+        @Test
+        public void should_throw_exception_every_time_if_dependency_of_unbound_concrete_class_not_found() {
+            config.allowJustInTimeBindings();
+            Context context = config.getContext();
+
+            assertThrows(DependencyNotFoundException.class, () -> context.get(ComponentRef.of(MissingDependencyConcrete.class)));
+            assertThrows(DependencyNotFoundException.class, () -> context.get(ComponentRef.of(MissingDependencyConcrete.class)));
+        }
+
+        @Test
+        public void should_not_validate_pending_bindings_on_just_in_time_lookup() {
+            config.allowJustInTimeBindings();
+            Context context = config.getContext();
+            config.bind(MissingDependencyConcrete.class, MissingDependencyConcrete.class);
+
+            assertSame(dependency, context.get(ComponentRef.of(Concrete.class)).get().dependency);
+            assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+        }
+
+        @Test
+        public void should_prefer_explicit_binding_over_previous_miss() {
+            config.allowJustInTimeBindings();
+            Context context = config.getContext();
+            assertTrue(context.get(ComponentRef.of(TestComponent.class)).isEmpty());
+
+            TestComponent instance = new TestComponent() {
+            };
+            config.bind(TestComponent.class, instance);
+
+            assertSame(instance, config.getContext().get(ComponentRef.of(TestComponent.class)).get());
+        }
+    }
+
+    @Nested
+    public class ProfileGuidedStartup {
+        static class Counter {
+            final List<Class<?>> constructed = Collections.synchronizedList(new ArrayList<>());
+        }
+
+        @Singleton
+        static class UsedSingleton {
+            @Inject
+            public UsedSingleton(Counter counter) {
+                counter.constructed.add(UsedSingleton.class);
+            }
+        }
+
+        @Singleton
+        static class UnusedSingleton {
+            @Inject
+            public UnusedSingleton(Counter counter) {
+                counter.constructed.add(UnusedSingleton.class);
+            }
+        }
+
+        @TempDir
+        Path directory;
+
+        private ContextConfig config(Counter counter, Path profile) {
+            ContextConfig config = new ContextConfig();
+            config.bind(Counter.class, counter);
+            config.bind(UsedSingleton.class, UsedSingleton.class);
+            config.bind(UnusedSingleton.class, UnusedSingleton.class);
+            config.profile(profile);
+            return config;
+        }
+
+        @Test
+        public void should_record_resolved_components_in_first_use_order() throws IOException {
+            Path profile = directory.resolve("usage.profile");
+            Context context = config(new Counter(), profile).getContext();
+            context.get(ComponentRef.of(UsedSingleton.class));
+            context.close();
+
+            List<String> lines = Files.readAllLines(profile);
+            assertEquals(2, lines.size());
+            assertTrue(lines.get(0).endsWith(UsedSingleton.class.getName() + "\tnull"));
+            assertTrue(lines.get(1).endsWith(Counter.class.getName() + "\tnull"));
+        }
+
+        @Test
+        public void should_warm_only_recorded_components_on_next_start() {
+            Path profile = directory.resolve("usage.profile");
+            Context context = config(new Counter(), profile).getContext();
+            context.get(ComponentRef.of(UsedSingleton.class));
+            context.close();
+
+            Counter counter = new Counter();
+            config(counter, profile).getContext();
+
+            assertEquals(List.of(UsedSingleton.class), counter.constructed);
+        }
+
+        @Test
+        public void should_start_lazily_without_recorded_profile() {
+            Counter counter = new Counter();
+            config(counter, directory.resolve("missing.profile")).getContext();
+
+            assertTrue(counter.constructed.isEmpty());
+        }
+
+        @Test
+        public void should_resolve_every_binding_in_training_mode() {
+            Counter counter = new Counter();
+            ContextConfig config = config(counter, directory.resolve("missing.profile"));
+            config.train();
+            config.getContext();
+
+            assertEquals(Set.of(UsedSingleton.class, UnusedSingleton.class), Set.copyOf(counter.constructed));
+            assertEquals(2, counter.constructed.size());
+        }
+    }
+
+    @Nested
+    public class ParallelIntrospection {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger introspected = new AtomicInteger();
+
+        @BeforeEach
+        public void setup() {
+            config.introspectOn(command -> {
+                introspected.incrementAndGet();
+                executor.execute(command);
+            });
+        }
+
+        @AfterEach
+        public void teardown() {
+            executor.shutdownNow();
+        }
+
+        @Test
+        public void should_introspect_implementations_on_executor() {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            config.bind(TestComponent.class, TypeBinding.FieldInjection.class, new SkywalkerLiteral());
+
+            Context context = config.getContext();
+
+            assertEquals(2, introspected.get());
+            assertTrue(context.get(ComponentRef.of(TestComponent.class)).get() instanceof TypeBinding.ConstructorInjection);
+            assertTrue(context.get(ComponentRef.of(TestComponent.class, new SkywalkerLiteral())).get() instanceof TypeBinding.FieldInjection);
+        }
+
+        @Test
+        public void should_throw_exception_for_illegal_component_when_building_context() {
+            assertDoesNotThrow(() -> config.bind(TestComponent.class, InjectionTest.ConstructorInjection.AbstractComponent.class));
+            assertThrows(IllegalComponentException.class, () -> config.getContext());
+        }
+
+        @Test
+        public void should_keep_binding_order_between_introspected_and_instance_bindings() {
+            TestComponent instance = new TestComponent() {
+            };
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            config.bind(TestComponent.class, instance);
+
+            assertSame(instance, config.getContext().get(ComponentRef.of(TestComponent.class)).get());
+        }
+
+        @Test
+        public void should_check_dependencies_of_introspected_implementations() {
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+            assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+        }
+    }
+
+    @Nested
+    public class MethodInterception {
+        static class Greeter {
+            @Inject
+            Dependency dependency;
+
+            @Logged
+            String greet(String name) {
+                return "hello " + name;
+            }
+
+            String plain() {
+                return "plain";
+            }
+        }
+
+        @Logged
+        static class LoggedGreeter {
+            public String greet(String name) {
+                return "hi " + name;
+            }
+        }
+
+        static final class FinalGreeter {
+            @Logged
+            String greet(String name) {
+                return name;
+            }
+        }
+
+        List<String> calls = new ArrayList<>();
+
+        @BeforeEach
+        public void setup() {
+            config.bind(Dependency.class, new Dependency() {
+            });
+        }
+
+        @Test
+        public void should_intercept_annotated_method_through_generated_subclass() {
+            config.intercept(Logged.class, invocation -> {
+                calls.add(invocation.method().getName() + Arrays.toString(invocation.arguments()));
+                return "[" + invocation.proceed() + "]";
+            });
+            config.bind(Greeter.class, Greeter.class);
+
+            Greeter greeter = config.getContext().get(ComponentRef.of(Greeter.class)).get();
+
+            assertNotSame(Greeter.class, greeter.getClass());
+            assertEquals("[hello world]", greeter.greet("world"));
+            assertEquals("plain", greeter.plain());
+            assertEquals(List.of("greet[world]"), calls);
+            assertNotNull(greeter.dependency);
+        }
+
+        @Test
+        public void should_intercept_methods_of_annotated_class() {
+            config.intercept(Logged.class, invocation -> "[" + invocation.proceed() + "]");
+            config.bind(LoggedGreeter.class, LoggedGreeter.class);
+
+            assertEquals("[hi world]", config.getContext().get(ComponentRef.of(LoggedGreeter.class)).get().greet("world"));
+        }
+
+        @Test
+        public void should_call_interceptors_in_registration_order() {
+            config.intercept(Logged.class, invocation -> "first(" + invocation.proceed() + ")");
+            config.intercept(Logged.class, invocation -> "second(" + invocation.proceed() + ")");
+            config.bind(Greeter.class, Greeter.class);
+
+            assertEquals("first(second(hello world))", config.getContext().get(ComponentRef.of(Greeter.class)).get().greet("world"));
+        }
+
+        @Test
+        public void should_intercept_compiled_prototype_graphs() {
+            config.intercept(Logged.class, invocation -> "[" + invocation.proceed() + "]");
+            config.bind(Greeter.class, Greeter.class);
+            config.compilePrototypeGraphs(4);
+
+            assertEquals("[hello world]", config.getContext().get(ComponentRef.of(Greeter.class)).get().greet("world"));
+        }
+
+        @Test
+        public void should_intercept_just_in_time_bound_component() {
+            config.intercept(Logged.class, invocation -> "[" + invocation.proceed() + "]");
+            config.allowJustInTimeBindings();
+            Context context = config.getContext();
+
+            assertEquals("[hello world]", context.get(ComponentRef.of(Greeter.class)).get().greet("world"));
+        }
+
+        @Test
+        public void should_not_subclass_component_without_intercepted_methods() {
+            config.intercept(Logged.class, Invocation::proceed);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+
+            assertSame(TypeBinding.ConstructorInjection.class, config.getContext().get(ComponentRef.of(TestComponent.class)).get().getClass());
+        }
+
+        @Test
+        public void should_throw_exception_if_intercepted_component_is_final() {
+            config.intercept(Logged.class, Invocation::proceed);
+            config.bind(FinalGreeter.class, FinalGreeter.class);
+
+            assertThrows(IllegalComponentException.class, () -> config.getContext());
+        }
+    }
+
+    @Nested
+    public class AssistedInjection {
+        static class Greeting {
+            final String name;
+            final int times;
+            final Dependency dependency;
+            @Inject
+            Provider<Dependency> provider;
+            boolean initialized;
+
+            @Inject
+            public Greeting(@Assisted String name, Dependency dependency, @Assisted int times) {
+                this.name = name;
+                this.times = times;
+                this.dependency = dependency;
+            }
+
+            @PostConstruct
+            void initialize() {
+                initialized = true;
+            }
+        }
+
+        interface GreetingFactory {
+            Greeting create(String name, int times);
+        }
+
+        interface MismatchedFactory {
+            Greeting create(int times, String name);
+        }
+
+        interface MissingArgumentFactory {
+            Greeting create(String name);
+        }
+
+        interface WrongResultFactory {
+            Dependency create(String name, int times);
+        }
+
+        @Test
+        public void should_create_component_with_runtime_arguments_and_injected_dependencies() {
+            Dependency dependency = new Dependency() {
+            };
+            config.bind(Dependency.class, dependency);
+            config.bindFactory(GreetingFactory.class, Greeting.class);
+
+            GreetingFactory factory = config.getContext().get(ComponentRef.of(GreetingFactory.class)).get();
+            Greeting greeting = factory.create("world", 3);
+
+            assertEquals("world", greeting.name);
+            assertEquals(3, greeting.times);
+            assertSame(dependency, greeting.dependency);
+            assertSame(dependency, greeting.provider.get());
+            assertTrue(greeting.initialized);
+        }
+
+        @Test
+        public void should_create_new_component_for_each_call() {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.bindFactory(GreetingFactory.class, Greeting.class);
+
+            GreetingFactory factory = config.getContext().get(ComponentRef.of(GreetingFactory.class)).get();
+
+            assertNotSame(factory.create("a", 1), factory.create("a", 1));
+            assertEquals("b", factory.create("b", 2).name);
+        }
+
+        @Test
+        public void should_throw_exception_if_dependency_of_factory_not_found() {
+            config.bindFactory(GreetingFactory.class, Greeting.class);
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+            assertEquals(Dependency.class, exception.getDependency().type());
+        }
+
+        static class Salutation {
+            final String name;
+            Dependency dependency;
+            AnotherDependency another;
+            @Inject
+            Dependency field;
+
+            @Inject
+            public Salutation(@Assisted String name) {
+                this.name = name;
+            }
+
+            @Inject
+            void install(Dependency dependency, AnotherDependency another) {
+                this.dependency = dependency;
+                this.another = another;
+            }
+        }
+
+        interface SalutationFactory {
+            Salutation create(String name);
+        }
+
+        @Test
+        public void should_inject_members_of_component_created_by_factory_per_context() {
+            Dependency dependency = new Dependency() {
+            };
+            AnotherDependency another = new AnotherDependency() {
+            };
+            config.bind(Dependency.class, dependency);
+            config.bind(AnotherDependency.class, another);
+            config.bindFactory(SalutationFactory.class, Salutation.class);
+
+            for (Context context : List.of(config.getContext(), config.getContext())) {
+                Salutation salutation = context.get(ComponentRef.of(SalutationFactory.class)).get().create("world");
+
+                assertEquals("world", salutation.name);
+                assertSame(dependency, salutation.dependency);
+                assertSame(another, salutation.another);
+                assertSame(dependency, salutation.field);
+            }
+        }
+
+        @ParameterizedTest
+        @ValueSource(classes = {MismatchedFactory.class, MissingArgumentFactory.class, WrongResultFactory.class, Greeting.class})
+        public void should_throw_exception_if_factory_does_not_match_assisted_parameters(Class<?> factory) {
+            assertThrows(IllegalComponentException.class, () -> config.bindFactory(factory, Greeting.class));
+        }
+    }
+
+    @Nested
+    public class TreeShaking {
+        static class Unsatisfied implements AnotherDependency {
+            @Inject
+            public Unsatisfied(Runnable task) {
+            }
+        }
+
+        Dependency dependency = new Dependency() {
+        };
+
+        @BeforeEach
+        public void setup() {
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+        }
+
+        @Test
+        public void should_include_reachable_closure_of_roots() {
+            Context context = config.getContext(ComponentRef.of(TestComponent.class));
+
+            assertSame(dependency, context.get(ComponentRef.of(TestComponent.class)).get().dependency());
+            assertSame(dependency, context.get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Singleton
+        static class Destroyable {
+            boolean destroyed;
+
+            @PreDestroy
+            void destroy() {
+                destroyed = true;
+            }
+        }
+
+        @Test
+        public void should_own_singletons_of_shaken_context() {
+            config.bind(Destroyable.class, Destroyable.class);
+            Context full = config.getContext();
+            Context shaken = config.getContext(ComponentRef.of(Destroyable.class));
+            Destroyable fullInstance = full.get(ComponentRef.of(Destroyable.class)).get();
+            Destroyable shakenInstance = shaken.get(ComponentRef.of(Destroyable.class)).get();
+            assertNotSame(fullInstance, shakenInstance);
+
+            shaken.close();
+            assertTrue(shakenInstance.destroyed);
+            assertFalse(fullInstance.destroyed);
+            assertSame(fullInstance, full.get(ComponentRef.of(Destroyable.class)).get());
+
+            full.close();
+            assertTrue(fullInstance.destroyed);
+        }
+
+        static class ForkCountingScope implements ContextConfig.ScopeProvider {
+            final AtomicInteger forks;
+
+            ForkCountingScope(AtomicInteger forks) {
+                this.forks = forks;
+            }
+
+            @Override
+            public ContextConfig.ComponentProvider<?> create(Component component, ContextConfig.ComponentProvider<?> provider) {
+                return new ContextConfig.ComponentProvider<Object>() {
+                    @Override
+                    public Object get(Context context) {
+                        return provider.get(context);
+                    }
+
+                    @Override
+                    public List<ComponentRef<?>> getDependencies() {
+                        return provider.getDependencies();
+                    }
+
+                    @Override
+                    public ContextConfig.ComponentProvider<Object> fork(Function<ContextConfig.ScopeProvider, ContextConfig.ScopeProvider> scopes) {
+                        return (ContextConfig.ComponentProvider<Object>) scopes.apply(ForkCountingScope.this).create(component, provider);
+                    }
+                };
+            }
+
+            @Override
+            public ContextConfig.ScopeProvider fork() {
+                forks.incrementAndGet();
+                return new ForkCountingScope(forks);
+            }
+        }
+
+        static class Leaf {
+        }
+
+        static class Root {
+            @Inject
+            Leaf leaf;
+        }
+
+        @Test
+        public void should_fork_each_scope_once_per_shaken_context() {
+            AtomicInteger forks = new AtomicInteger();
+            config.scope(Pooled.class, new ForkCountingScope(forks));
+            config.bind(Leaf.class, Leaf.class, new PooledLiteral());
+            config.bind(Root.class, Root.class, new PooledLiteral());
+
+            Context context = config.getContext(ComponentRef.of(Root.class));
+
+            assertEquals(1, forks.get());
+            assertNotNull(context.get(ComponentRef.of(Root.class)).get().leaf);
+        }
+
+        @Test
+        public void should_not_close_shared_providers_of_shaken_context() {
+            ContextConfig module = new ContextConfig();
+            module.bind(Destroyable.class, Destroyable.class);
+            config.include(module.module(ComponentRef.of(Destroyable.class)));
+            Context full = config.getContext();
+            Destroyable instance = full.get(ComponentRef.of(Destroyable.class)).get();
+
+            config.getContext(ComponentRef.of(Destroyable.class)).close();
+
+            assertFalse(instance.destroyed);
+            assertSame(instance, full.get(ComponentRef.of(Destroyable.class)).get());
+        }
+
+        @Test
+        public void should_not_include_unreachable_components() {
+            config.bind(AnotherDependency.class, new AnotherDependency() {
+            });
+
+            Context context = config.getContext(ComponentRef.of(Dependency.class));
+
+            assertTrue(context.get(ComponentRef.of(TestComponent.class)).isEmpty());
+            assertTrue(context.get(ComponentRef.of(AnotherDependency.class)).isEmpty());
+        }
+
+        @Test
+        public void should_not_validate_unreachable_components() {
+            config.bind(AnotherDependency.class, Unsatisfied.class);
+
+            assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+            assertTrue(config.getContext(ComponentRef.of(TestComponent.class)).get(ComponentRef.of(TestComponent.class)).isPresent());
+        }
+
+        @Test
+        public void should_throw_exception_if_dependency_of_root_not_found() {
+            ContextConfig config = new ContextConfig();
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class);
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext(ComponentRef.of(TestComponent.class)));
+            assertEquals(Dependency.class, exception.getDependency().type());
+        }
+
+        @Test
+        public void should_include_closure_of_provider_root() {
+            Context context = config.getContext(new ComponentRef<Provider<TestComponent>>() {
+            });
+
+            assertTrue(context.get(ComponentRef.of(Dependency.class)).isPresent());
+        }
+    }
+
+    @Nested
+    public class ConfigurationValues {
+        enum Mode {
+            FAST, SAFE
+        }
+
+        static class Settings {
+            final int poolSize;
+            final Duration timeout;
+            @Inject
+            @jakarta.inject.Named("endpoint")
+            java.net.URI endpoint;
+            @Inject
+            @jakarta.inject.Named("mode")
+            Mode mode;
+            @Inject
+            @jakarta.inject.Named("name")
+            Provider<String> name;
+
+            @Inject
+            public Settings(@jakarta.inject.Named("pool.size") int poolSize, @jakarta.inject.Named("timeout") Duration timeout) {
+                this.poolSize = poolSize;
+                this.timeout = timeout;
+            }
+        }
+
+        Properties properties = new Properties();
+
+        @BeforeEach
+        public void setup() {
+            properties.setProperty("pool.size", " 16 ");
+            properties.setProperty("timeout", "PT30S");
+            properties.setProperty("endpoint", "https://example.com/api");
+            properties.setProperty("mode", "SAFE");
+            properties.setProperty("name", "settings");
+            config.bind(Settings.class, Settings.class);
+        }
+
+        @Test
+        public void should_inject_converted_configuration_values() {
+            config.bindConfiguration(properties);
+
+            Settings settings = config.getContext().get(ComponentRef.of(Settings.class)).get();
+
+            assertEquals(16, settings.poolSize);
+            assertEquals(Duration.ofSeconds(30), settings.timeout);
+            assertEquals(java.net.URI.create("https://example.com/api"), settings.endpoint);
+            assertEquals(Mode.SAFE, settings.mode);
+            assertEquals("settings", settings.name.get());
+        }
+
+        @Test
+        public void should_convert_value_once_when_context_built() {
+            config.bindConfiguration(properties);
+            Context context = config.getContext();
+
+            assertSame(context.get(ComponentRef.of(Settings.class)).get().timeout, context.get(ComponentRef.of(Settings.class)).get().timeout);
+        }
+
+        @Test
+        public void should_load_configuration_from_properties_file(@TempDir Path dir) throws IOException {
+            Path file = dir.resolve("application.properties");
+            try (java.io.Writer writer = Files.newBufferedWriter(file)) {
+                properties.store(writer, null);
+            }
+            config.bindConfiguration(file);
+
+            assertEquals(16, config.getContext().get(ComponentRef.of(Settings.class)).get().poolSize);
+        }
+
+        @Test
+        public void should_prefer_explicit_binding_over_configuration() {
+            config.bindConfiguration(properties);
+            config.bind(String.class, "explicit", new NamedLiteral("name"));
+
+            assertEquals("explicit", config.getContext().get(ComponentRef.of(Settings.class)).get().name.get());
+        }
+
+        @Test
+        public void should_update_value_when_configuration_rebound() {
+            config.bindConfiguration(properties);
+            config.getContext();
+            Properties updated = new Properties();
+            updated.setProperty("pool.size", "32");
+            config.bindConfiguration(updated);
+
+            assertEquals(32, config.getContext().get(ComponentRef.of(Settings.class)).get().poolSize);
+        }
+
+        @Test
+        public void should_throw_exception_if_configuration_value_missing() {
+            properties.remove("timeout");
+            config.bindConfiguration(properties);
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+            assertEquals(Duration.class, exception.getDependency().type());
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"pool.size", "timeout", "mode"})
+        public void should_throw_exception_if_configuration_value_not_convertible(String name) {
+            properties.setProperty(name, "not a value");
+            config.bindConfiguration(properties);
+
+            assertThrows(IllegalComponentException.class, () -> config.getContext());
+        }
+    }
+
+    @Nested
+    public class TenantContexts {
+        static class Destroyable {
+            static final AtomicInteger destroyed = new AtomicInteger();
+
+            @PreDestroy
+            void destroy() {
+                destroyed.incrementAndGet();
+            }
+        }
+
+        Dependency base = new Dependency() {
+        };
+
+        @BeforeEach
+        public void setup() {
+            Destroyable.destroyed.set(0);
+            config.bind(Dependency.class, base);
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class, new SingletonLiteral());
+            config.bind(Destroyable.class, Destroyable.class, new SingletonLiteral());
+        }
+
+        @Test
+        public void should_share_unaffected_bindings_with_base() {
+            Context context = config.getContext();
+            Context tenant = config.tenant().getContext();
+
+            assertSame(context.get(ComponentRef.of(TestComponent.class)).get(), tenant.get(ComponentRef.of(TestComponent.class)).get());
+        }
+
+        @Test
+        public void should_fork_scoped_dependents_of_overridden_binding() {
+            Dependency overridden = new Dependency() {
+            };
+            ContextConfig tenant = config.tenant();
+            tenant.bind(Dependency.class, overridden);
+
+            Context context = config.getContext();
+            Context tenantContext = tenant.getContext();
+
+            assertSame(overridden, tenantContext.get(ComponentRef.of(TestComponent.class)).get().dependency());
+            assertSame(base, context.get(ComponentRef.of(TestComponent.class)).get().dependency());
+            assertSame(tenantContext.get(ComponentRef.of(TestComponent.class)).get(), tenantContext.get(ComponentRef.of(TestComponent.class)).get());
+        }
+
+        @Test
+        public void should_keep_tenants_independent() {
+            ContextConfig first = config.tenant();
+            first.bind(Dependency.class, new Dependency() {
+            });
+            ContextConfig second = config.tenant();
+
+            assertNotSame(first.getContext().get(ComponentRef.of(Dependency.class)).get(), second.getContext().get(ComponentRef.of(Dependency.class)).get());
+            assertSame(base, second.getContext().get(ComponentRef.of(Dependency.class)).get());
+        }
+
+        @Test
+        public void should_throw_exception_if_dependency_of_tenant_binding_not_found() {
+            ContextConfig tenant = config.tenant();
+            tenant.bind(AnotherDependency.class, TreeShaking.Unsatisfied.class);
+
+            assertThrows(DependencyNotFoundException.class, () -> tenant.getContext());
+        }
+
+        @Test
+        public void should_throw_exception_if_tenant_binding_introduces_cycle() {
+            ContextConfig tenant = config.tenant();
+            tenant.bind(Dependency.class, DependencyCheck.CyclicDependencyInjectConstructor.class);
+
+            assertThrows(CyclicDependenciesFoundException.class, () -> tenant.getContext());
+        }
+
+        static class Head {
+            @Inject
+            Provider<Tail> tail;
+        }
+
+        static class Tail {
+            @Inject
+            Head head;
+        }
+
+        @Test
+        public void should_not_throw_exception_if_tenant_override_on_cycle_via_provider() {
+            config.bind(Head.class, Head.class);
+            config.bind(Tail.class, Tail.class);
+            ContextConfig tenant = config.tenant();
+            tenant.bind(Tail.class, Tail.class, new SingletonLiteral());
+
+            Context context = tenant.getContext();
+
+            Head head = context.get(ComponentRef.of(Head.class)).get();
+            assertSame(head.tail.get(), context.get(ComponentRef.of(Tail.class)).get());
+        }
+
+        @Test
+        public void should_close_only_tenant_owned_components() {
+            ContextConfig tenant = config.tenant();
+            tenant.bind(Destroyable.class, Destroyable.class, new SingletonLiteral());
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Destroyable.class)).get();
+            Context tenantContext = tenant.getContext();
+            tenantContext.get(ComponentRef.of(Destroyable.class)).get();
+
+            tenantContext.close();
+            assertEquals(1, Destroyable.destroyed.get());
+            context.close();
+            assertEquals(2, Destroyable.destroyed.get());
+        }
+
+        @Test
+        public void should_override_configuration_value_per_tenant() {
+            Properties properties = new Properties();
+            properties.setProperty("name", "base");
+            config.bindConfiguration(properties);
+            config.bind(Named.class, Named.class);
+            ContextConfig tenant = config.tenant();
+            Properties overridden = new Properties();
+            overridden.setProperty("name", "tenant");
+            tenant.bindConfiguration(overridden);
+
+            assertEquals("base", config.getContext().get(ComponentRef.of(Named.class)).get().name);
+            assertEquals("tenant", tenant.getContext().get(ComponentRef.of(Named.class)).get().name);
+        }
+
+        static class Named {
+            @Inject
+            @jakarta.inject.Named("name")
+            String name;
+        }
+
+        static class Resource {
+            boolean destroyed;
+
+            @PreDestroy
+            void destroy() {
+                destroyed = true;
+            }
+        }
+
+        @Test
+        public void should_not_share_cached_instances_with_base_when_overridden() {
+            config.bind(Resource.class, Resource.class, new CachedLiteral());
+            ContextConfig tenant = config.tenant();
+            tenant.bind(Resource.class, Resource.class, new CachedLiteral());
+            Context context = config.getContext();
+            Resource base = context.get(ComponentRef.of(Resource.class)).get();
+            Context tenantContext = tenant.getContext();
+            Resource overridden = tenantContext.get(ComponentRef.of(Resource.class)).get();
+
+            assertNotSame(base, overridden);
+            tenantContext.close();
+            assertTrue(overridden.destroyed);
+            assertFalse(base.destroyed);
+            assertSame(base, context.get(ComponentRef.of(Resource.class)).get());
+        }
+
+        @Test
+        public void should_not_aggregate_stripes_of_tenant_override_in_base() {
+            StripedScope striped = StripedScope.of(1);
+            config.scope(Striped.class, striped);
+            config.bind(Resource.class, Resource.class, new StripedLiteral());
+            ContextConfig tenant = config.tenant();
+            tenant.bind(Resource.class, Resource.class, new StripedLiteral());
+
+            Resource base = config.getContext().get(ComponentRef.of(Resource.class)).get();
+            Resource overridden = tenant.getContext().get(ComponentRef.of(Resource.class)).get();
+
+            assertNotSame(base, overridden);
+            assertEquals(List.of(base), striped.<Resource, List<Resource>>aggregate(new Component(Resource.class, null), List::copyOf));
+        }
+
+        @Test
+        public void should_not_allow_tenant_to_add_interceptors() {
+            assertThrows(IllegalStateException.class, () -> config.tenant().intercept(Logged.class, Invocation::proceed));
+        }
+    }
+
+    @Nested
+    public class AliasBinding {
+        @BeforeEach
+        public void setup() {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.bind(TypeBinding.ConstructorInjection.class, TypeBinding.ConstructorInjection.class, new SingletonLiteral());
+        }
+
+        @Test
+        public void should_share_instance_of_target_with_supertype_alias() {
+            config.alias(ComponentRef.of(TestComponent.class), ComponentRef.of(TypeBinding.ConstructorInjection.class));
+            Context context = config.getContext();
+
+            assertSame(context.get(ComponentRef.of(TypeBinding.ConstructorInjection.class)).get(), context.get(ComponentRef.of(TestComponent.class)).get());
+        }
+
+        @Test
+        public void should_share_instance_of_target_with_qualified_alias() {
+            config.alias(ComponentRef.of(TypeBinding.ConstructorInjection.class, new SkywalkerLiteral()), ComponentRef.of(TypeBinding.ConstructorInjection.class));
+            config.alias(ComponentRef.of(TestComponent.class, new NamedLiteral("ChosenOne")), ComponentRef.of(TypeBinding.ConstructorInjection.class, new SkywalkerLiteral()));
+            Context context = config.getContext();
+
+            TypeBinding.ConstructorInjection target = context.get(ComponentRef.of(TypeBinding.ConstructorInjection.class)).get();
+            assertSame(target, context.get(ComponentRef.of(TypeBinding.ConstructorInjection.class, new SkywalkerLiteral())).get());
+            assertSame(target, context.get(ComponentRef.of(TestComponent.class, new NamedLiteral("ChosenOne"))).get());
+        }
+
+        @Test
+        public void should_follow_rebinding_of_target() {
+            config.alias(ComponentRef.of(TestComponent.class), ComponentRef.of(TypeBinding.ConstructorInjection.class));
+            config.getContext();
+            TypeBinding.ConstructorInjection rebound = new TypeBinding.ConstructorInjection(null);
+            config.bind(TypeBinding.ConstructorInjection.class, rebound);
+
+            assertSame(rebound, config.getContext().get(ComponentRef.of(TestComponent.class)).get());
+        }
+
+        @Test
+        public void should_throw_exception_if_alias_target_not_found() {
+            config.alias(ComponentRef.of(Dependency.class, new SkywalkerLiteral()), ComponentRef.of(Dependency.class, new NamedLiteral("missing")));
+
+            DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+            assertEquals(new Component(Dependency.class, new NamedLiteral("missing")), exception.getDependency());
+        }
+
+        @Test
+        public void should_throw_exception_if_alias_type_not_assignable_from_target() {
+            assertThrows(IllegalComponentException.class, () -> config.alias((ComponentRef) ComponentRef.of(AnotherDependency.class), ComponentRef.of(Dependency.class)));
+        }
+
+        @Test
+        public void should_throw_exception_if_alias_refers_to_itself() {
+            assertThrows(IllegalComponentException.class, () -> config.alias(ComponentRef.of(Dependency.class), ComponentRef.of(Dependency.class)));
+        }
+
+        @Test
+        public void should_keep_separate_scoped_instance_per_qualifier_of_shared_implementation() {
+            config.bind(TestComponent.class, TypeBinding.ConstructorInjection.class, new SingletonLiteral(), new SkywalkerLiteral(), new NamedLiteral("ChosenOne"));
+            Context context = config.getContext();
+
+            assertNotSame(context.get(ComponentRef.of(TestComponent.class, new SkywalkerLiteral())).get(),
+                    context.get(ComponentRef.of(TestComponent.class, new NamedLiteral("ChosenOne"))).get());
+        }
+    }
+
+    @Nested
+    public class HeapFootprint {
+        @Singleton
+        static class Bloated {
+            final byte[] buffer = new byte[1 << 20];
+        }
+
+        @Singleton
+        static class Holder {
+            @Inject
+            Bloated bloated;
+            final long[] counters = new long[16];
+        }
+
+        static class Prototype {
+        }
+
+        @BeforeEach
+        public void setup() {
+            config.bind(Bloated.class, Bloated.class);
+            config.bind(Holder.class, Holder.class);
+            config.bind(Prototype.class, Prototype.class);
+        }
+
+        @Test
+        public void should_report_retained_size_of_scoped_instances() {
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Holder.class)).get();
+            context.get(ComponentRef.of(Prototype.class)).get();
+
+            Footprint footprint = context.footprint();
+            Footprint.ComponentFootprint bloated = footprint.components().get(0);
+
+            assertEquals(new Component(Bloated.class, null), bloated.component());
+            assertEquals(1, bloated.instances());
+            assertTrue(bloated.retainedBytes() >= 1 << 20);
+            Footprint.ComponentFootprint holder = footprint.components().get(1);
+            assertEquals(new Component(Holder.class, null), holder.component());
+            assertTrue(holder.retainedBytes() > 16 * 8 && holder.retainedBytes() < 1 << 10);
+            Footprint.ComponentFootprint prototype = footprint.components().get(2);
+            assertEquals(0, prototype.instances());
+            assertEquals(0, prototype.retainedBytes());
+        }
+
+        @Test
+        public void should_report_container_overhead() {
+            Footprint footprint = config.getContext().footprint();
+
+            assertTrue(footprint.components().stream().allMatch(component -> component.providerBytes() > 0));
+            assertTrue(footprint.graphBytes() > 0);
+            assertTrue(footprint.mapBytes() > 0);
+            assertTrue(footprint.containerBytes() > footprint.graphBytes() + footprint.mapBytes());
+            assertEquals(0, footprint.retainedBytes());
+        }
+
+        @Test
+        public void should_dump_footprint_as_json() {
+            Context context = config.getContext();
+            context.get(ComponentRef.of(Bloated.class)).get();
+
+            String json = context.footprint().toJson();
+
+            assertTrue(json.startsWith("{\"retainedBytes\":"));
+            assertTrue(json.contains("{\"type\":\"" + Bloated.class.getName() + "\",\"qualifier\":null,\"provider\":\"SingletonProvider\",\"instances\":1,"));
+            assertTrue(json.endsWith("}]}"));
+        }
+    }
+
+    @Nested
+    public class TypeBinding {
+        @Test
+        public void should_bind_type_to_a_specific_instance() {
+
+            TestComponent instance = new TestComponent() {
+            };
+            config.bind(TestComponent.class, instance);
+
+            Context context = config.getContext();
+            assertSame(instance, context.get(ComponentRef.of(TestComponent.class)).get());
+
+        }
+
+        @Test
+        public void should_return_empty_if_component_not_defined() {
+            Context context = config.getContext();
+            Optional<TestComponent> component = context.get(ComponentRef.of(TestComponent.class));
+            assertTrue(component.isEmpty());
+        }
+
+        @ParameterizedTest(name = "supporting {0}")
+        @MethodSource
+        public void should_bind_type_to_an_injectable_component(Class<? extends TestComponent> componentType) {
+            Dependency dependency = new Dependency() {
+            };
+            config.bind(Dependency.class, dependency);
+            config.bind(TestComponent.class, componentType);
+
+            Context context = config.getContext();
+            Optional<TestComponent> component = context.get(ComponentRef.of(TestComponent.class));
+
+            assertTrue(component.isPresent());
+            assertSame(dependency, component.get().dependency());
+        }
+
+        public static Stream<Arguments> should_bind_type_to_an_injectable_component() {
+            return Stream.of(
+                    Arguments.of(Named.of("Constructor Injection", ConstructorInjection.class)),
+                    Arguments.of(Named.of("Filed Injection", FieldInjection.class)),
+                    Arguments.of(Named.of("Method Injection", MethodInjection.class))
+            );
+        }
+
+        static class ConstructorInjection implements TestComponent {
+            private Dependency dependency;
+
+            @Inject
+            public ConstructorInjection(Dependency dependency) {
+                this.dependency = dependency;
+            }
+
+            public Dependency dependency() {
+                return dependency;
+            }
+        }
+
+        static class FieldInjection implements TestComponent {
+            private Dependency dependency;
+
+            @Inject
+            void install(Dependency dependency) {
+                this.dependency = dependency;
+            }
+
+            public Dependency dependency() {
+                return dependency;
+            }
+        }
+
+        static class MethodInjection implements TestComponent {
+            private Dependency dependency;
+
+            @Inject
+            public void install(Dependency dependency) {
+                this.dependency = dependency;
+            }
+
+            public Dependency dependency() {
+                return dependency;
+            }
+        }
+
+        @Test
+        public void should_retrieve_empty_for_unbind_type() {
+            Context context = config.getContext();
+            Optional<TestComponent> component = context.get(ComponentRef.of(TestComponent.class));
+            assertTrue(component.isEmpty());
+        }
+
+        @Test
+        public void should_retrieve_bind_type_as_provider() {
+            TestComponent instance = new TestComponent() {
+            };
+            config.bind(TestComponent.class, instance);
+
+            Context context = config.getContext();
+
+            Provider<TestComponent> provider = context.get(new ComponentRef<Provider<TestComponent>>() {
+            }).get();
+            assertSame(instance, provider.get());
+        }
+
+        @Test
+        public void should_not_retrieve_bind_type_as_unsupported_container() {
+            TestComponent instance = new TestComponent() {
+            };
+            config.bind(TestComponent.class, instance);
+
+            Context context = config.getContext();
+
+            assertFalse(context.get(new ComponentRef<List<TestComponent>>() {
+            }).isPresent());
+        }
+
+        @Test
+        public void should_retrieve_bind_type_through_binding_handle() {
+            config.bind(Dependency.class, new Dependency() {
+            });
+            config.bind(TestComponent.class, ConstructorInjection.class);
+
+            Context context = config.getContext();
+            Binding<TestComponent> binding = context.handle(ComponentRef.of(TestComponent.class)).get();
+
+            TestComponent component = binding.get();
+            assertSame(context.get(ComponentRef.of(Dependency.class)).get(), component.dependency());
+            assertNotSame(component, binding.get());
+        }
+
+        @Test
+        public void should_retrieve_provider_through_binding_handle() {
+            TestComponent instance = new TestComponent() {
+            };
+            config.bind(TestComponent.class, instance);
+
+            Context context = config.getContext();
+            Binding<Provider<TestComponent>> binding = context.handle(new ComponentRef<Provider<TestComponent>>() {
+            }).get();
+
+            assertSame(instance, binding.get().get());
+        }
+
+        @Test
+        public void should_retrieve_empty_binding_handle_for_unbind_type() {
+            Context context = config.getContext();
+            assertTrue(context.handle(ComponentRef.of(TestComponent.class)).isEmpty());
+        }
+
+        @Nested
+        public class WithQualifier {
+            @Test
+            public void should_bind_instance_with_multi_qualifiers() {
+                TestComponent instance = new TestComponent() {
+                };
+                config.bind(TestComponent.class, instance, new NamedLiteral("ChosenOne"), new SkywalkerLiteral());
+
+                Context context = config.getContext();
+
+                TestComponent chosenOne = context.get(ComponentRef.of(TestComponent.class, new NamedLiteral("ChosenOne"))).get();
+                TestComponent skywalker = context.get(ComponentRef.of(TestComponent.class, new SkywalkerLiteral())).get();
+
+                assertSame(instance, chosenOne);
+                assertSame(instance, skywalker);
+            }
+
+            @Test
+            public void should_bind_component_with_multi_qualifiers() {
+                Dependency dependency = new Dependency() {
+                };
+                config.bind(Dependency.class, dependency);
+                config.bind(InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, InjectionTest.ConstructorInjection.Injection.InjectConstructor.class,
+                        new NamedLiteral("ChosenOne"), new SkywalkerLiteral());
+
+                Context context = config.getContext();
+
+                InjectionTest.ConstructorInjection.Injection.InjectConstructor chosenOne = context.get(ComponentRef.of(InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, new NamedLiteral("ChosenOne"))).get();
+                InjectionTest.ConstructorInjection.Injection.InjectConstructor skywalker = context.get(ComponentRef.of(InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, new SkywalkerLiteral())).get();
+
+                assertSame(dependency, chosenOne.dependency);
+                assertSame(dependency, skywalker.dependency);
+            }
+
+            @Test
+            public void should_throw_exception_if_illegal_qualifier_given_to_instance() {
+                TestComponent instance = new TestComponent() {
+                };
+                assertThrows(IllegalComponentException.class, () -> config.bind(TestComponent.class, instance, new TestLiteral()));
+            }
+
+            @Test
+            public void should_throw_exception_if_illegal_qualifier_given_to_component() {
+                assertThrows(IllegalComponentException.class, () -> config.bind(InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, new TestLiteral()));
+            }
+        }
+        @Nested
+        public class WithModule {
+            static class DependencyModule {
+                int provided = 0;
+
+                @Provides
+                Dependency dependency() {
+                    provided++;
+                    return new Dependency() {
+                    };
+                }
+
+                @Provides
+                @Skywalker
+                @Singleton
+                TestComponent component(Dependency dependency) {
+                    return new TestComponent() {
+                        @Override
+                        public Dependency dependency() {
+                            return dependency;
+                        }
+                    };
+                }
+            }
+
+            @Test
+            public void should_bind_provides_method_of_module() {
+                DependencyModule module = new DependencyModule();
+                config.install(module);
+                Context context = config.getContext();
+
+                assertTrue(context.get(ComponentRef.of(Dependency.class)).isPresent());
+                assertEquals(1, module.provided);
+            }
+
+            @Test
+            public void should_inject_dependencies_into_provides_method_with_qualifier_and_scope() {
+                config.install(new DependencyModule());
+                Context context = config.getContext();
+
+                TestComponent component = context.get(ComponentRef.of(TestComponent.class, new SkywalkerLiteral())).get();
+
+                assertNotNull(component.dependency());
+                assertSame(component, context.get(ComponentRef.of(TestComponent.class, new SkywalkerLiteral())).get());
+            }
+
+            static class StaticModule {
+                @Provides
+                static Dependency dependency() {
+                    return new Dependency() {
+                    };
+                }
+            }
+
+            @Test
+            public void should_bind_static_provides_method() {
+                config.install(new StaticModule());
+                assertTrue(config.getContext().get(ComponentRef.of(Dependency.class)).isPresent());
+            }
+
+            static class MissingDependencyModule {
+                @Provides
+                TestComponent component(Dependency dependency) {
+                    return null;
+                }
+            }
+
+            @Test
+            public void should_throw_exception_if_provides_method_dependency_not_found() {
+                config.install(new MissingDependencyModule());
+
+                DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+                assertEquals(TestComponent.class, exception.getComponent().type());
+                assertEquals(Dependency.class, exception.getDependency().type());
+            }
+
+            static class CyclicModule {
+                @Provides
+                TestComponent component(Dependency dependency) {
+                    return null;
+                }
+
+                @Provides
+                Dependency dependency(TestComponent component) {
+                    return null;
+                }
+            }
+
+            @Test
+            public void should_throw_exception_if_cyclic_dependencies_found_in_module() {
+                config.install(new CyclicModule());
+                assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+            }
+
+            static class VoidModule {
+                @Provides
+                void nothing() {
+                }
+            }
+
+            @Test
+            public void should_throw_exception_if_provides_method_returns_void() {
+                assertThrows(IllegalComponentException.class, () -> config.install(new VoidModule()));
+            }
+        }
+
+        @Nested
+        public class WithScope {
+            static class NotSingleton {
+            }
+
+            @Test
+            public void should_not_be_singleton_scope_by_default() {
+                config.bind(NotSingleton.class, NotSingleton.class);
+                Context context = config.getContext();
+                assertNotSame(context.get(ComponentRef.of(NotSingleton.class)).get(), context.get(ComponentRef.of(NotSingleton.class)).get());
+            }
+
+            @Test
+            public void should_bind_component_as_singleton_scoped() {
+                config.bind(NotSingleton.class, NotSingleton.class, new SingletonLiteral());
+                Context context = config.getContext();
+                assertSame(context.get(ComponentRef.of(NotSingleton.class)).get(), context.get(ComponentRef.of(NotSingleton.class)).get());
+            }
+
+            @Singleton
+            static class SingletonAnnotated implements Dependency {
+            }
+
+            @Test
+            public void should_retrieve_scope_annotation_from_component() {
+                config.bind(Dependency.class, SingletonAnnotated.class);
+                Context context = config.getContext();
+                assertSame(context.get(ComponentRef.of(Dependency.class)).get(), context.get(ComponentRef.of(Dependency.class)).get());
+            }
+
+            @Test
+            public void should_bind_component_as_singleton_scoped_with_qualifier() {
+                config.bind(NotSingleton.class, NotSingleton.class, new SingletonLiteral(), new SkywalkerLiteral());
+                Context context = config.getContext();
+                assertSame(context.get(ComponentRef.of(NotSingleton.class, new SkywalkerLiteral())).get(),
+                        context.get(ComponentRef.of(NotSingleton.class, new SkywalkerLiteral())).get());
+            }
+
+            @Test
+            public void should_throw_exception_if_multi_scope_provided() {
+                assertThrows(IllegalComponentException.class, () -> config.bind(NotSingleton.class, NotSingleton.class, new SingletonLiteral(), new CachedLiteral()));
+            }
 
-    @Nested
-    public class DependenciesSelection {
+            @Test
+            public void should_throw_exception_if_scope_undefined() {
+                assertThrows(IllegalComponentException.class, () -> config.bind(NotSingleton.class, NotSingleton.class, new PooledLiteral()));
+            }
 
-        @Nested
-        public class ProviderType {
-        }
+            @Test
+            public void should_keep_cached_instance_until_evicted() {
+                CacheScope cache = CacheScope.lru(1);
+                config.scope(Cached.class, cache);
+                config.bind(NotSingleton.class, NotSingleton.class, new CachedLiteral());
+                Context context = config.getContext();
 
-        @Nested
-        public class Qualifier {
-        }
-    }
+                NotSingleton cached = context.get(ComponentRef.of(NotSingleton.class)).get();
+                assertSame(cached, context.get(ComponentRef.of(NotSingleton.class)).get());
 
-    @Nested
-    public class LifecycleManagement {
+                cache.evict(new Component(NotSingleton.class, null));
+                assertNotSame(cached, context.get(ComponentRef.of(NotSingleton.class)).get());
+            }
 
-    }
+            static class AnotherNotSingleton {
+            }
 
-    @Nested
-    public class TypeBinding {
-        @Test
-        public void should_bind_type_to_a_specific_instance() {
+            @Test
+            public void should_evict_least_recently_used_instance_from_residents() {
+                CacheScope cache = CacheScope.lru(1);
+                config.scope(Cached.class, cache);
+                config.bind(NotSingleton.class, NotSingleton.class, new CachedLiteral());
+                config.bind(AnotherNotSingleton.class, AnotherNotSingleton.class, new CachedLiteral());
+                Context context = config.getContext();
+                Component older = new Component(NotSingleton.class, null);
+                Component newer = new Component(AnotherNotSingleton.class, null);
 
-            TestComponent instance = new TestComponent() {
-            };
-            config.bind(TestComponent.class, instance);
+                context.get(ComponentRef.of(NotSingleton.class)).get();
+                context.get(ComponentRef.of(AnotherNotSingleton.class)).get();
+                assertFalse(cache.isResident(older));
+                assertTrue(cache.isResident(newer));
 
-            Context context = config.getContext();
-            assertSame(instance, context.get(ComponentRef.of(TestComponent.class)).get());
+                context.get(ComponentRef.of(NotSingleton.class)).get();
+                assertTrue(cache.isResident(older));
+                assertFalse(cache.isResident(newer));
+            }
 
-        }
+            @Test
+            public void should_share_forked_cache_scope_between_forked_providers() {
+                CacheScope cache = CacheScope.lru(1);
+                Component older = new Component(NotSingleton.class, null);
+                Component newer = new Component(AnotherNotSingleton.class, null);
+                ContextConfig.ComponentProvider<?> first = cache.create(older, new InjectionProvider<>(NotSingleton.class));
+                ContextConfig.ComponentProvider<?> second = cache.create(newer, new InjectionProvider<>(AnotherNotSingleton.class));
+                Map<ContextConfig.ScopeProvider, ContextConfig.ScopeProvider> forks = new IdentityHashMap<>();
+                Function<ContextConfig.ScopeProvider, ContextConfig.ScopeProvider> forked = scope -> forks.computeIfAbsent(scope, ContextConfig.ScopeProvider::fork);
+                Context context = config.getContext();
 
-        @Test
-        public void should_return_empty_if_component_not_defined() {
-            Context context = config.getContext();
-            Optional<TestComponent> component = context.get(ComponentRef.of(TestComponent.class));
-            assertTrue(component.isEmpty());
-        }
+                first.fork(forked).get(context);
+                second.fork(forked).get(context);
 
-        @ParameterizedTest(name = "supporting {0}")
-        @MethodSource
-        public void should_bind_type_to_an_injectable_component(Class<? extends TestComponent> componentType) {
-            Dependency dependency = new Dependency() {
-            };
-            config.bind(Dependency.class, dependency);
-            config.bind(TestComponent.class, componentType);
+                CacheScope shared = (CacheScope) forks.get(cache);
+                assertEquals(1, forks.size());
+                assertFalse(shared.isResident(older));
+                assertTrue(shared.isResident(newer));
+                assertFalse(cache.isResident(older) || cache.isResident(newer));
+            }
 
-            Context context = config.getContext();
-            Optional<TestComponent> component = context.get(ComponentRef.of(TestComponent.class));
+            @Test
+            public void should_create_cached_instance_once_under_concurrent_lookups() throws Exception {
+                CacheScope cache = CacheScope.lru(1);
+                AtomicInteger created = new AtomicInteger();
+                ContextConfig.ComponentProvider<?> provider = cache.create(new Component(NotSingleton.class, null), context -> {
+                    created.incrementAndGet();
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new NotSingleton();
+                });
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+                try {
+                    List<Callable<Object>> lookups = Collections.nCopies(64, () -> provider.get(null));
+                    Set<Object> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+                    for (Future<Object> instance : executor.invokeAll(lookups)) instances.add(instance.get());
+
+                    assertEquals(1, instances.size());
+                    assertEquals(1, created.get());
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
 
-            assertTrue(component.isPresent());
-            assertSame(dependency, component.get().dependency());
-        }
+            @Test
+            public void should_cache_instances_per_component() {
+                config.bind(NotSingleton.class, NotSingleton.class, new CachedLiteral(), new SkywalkerLiteral(), new NamedLiteral("ChosenOne"));
+                Context context = config.getContext();
 
-        public static Stream<Arguments> should_bind_type_to_an_injectable_component() {
-            return Stream.of(
-                    Arguments.of(Named.of("Constructor Injection", ConstructorInjection.class)),
-                    Arguments.of(Named.of("Filed Injection", FieldInjection.class)),
-                    Arguments.of(Named.of("Method Injection", MethodInjection.class))
-            );
-        }
+                NotSingleton skywalker = context.get(ComponentRef.of(NotSingleton.class, new SkywalkerLiteral())).get();
+                NotSingleton chosenOne = context.get(ComponentRef.of(NotSingleton.class, new NamedLiteral("ChosenOne"))).get();
 
-        static class ConstructorInjection implements TestComponent {
-            private Dependency dependency;
+                assertNotSame(skywalker, chosenOne);
+                assertSame(skywalker, context.get(ComponentRef.of(NotSingleton.class, new SkywalkerLiteral())).get());
+            }
 
-            @Inject
-            public ConstructorInjection(Dependency dependency) {
-                this.dependency = dependency;
+            static class Counter {
+                final AtomicInteger count = new AtomicInteger();
             }
 
-            public Dependency dependency() {
-                return dependency;
+            @Test
+            public void should_return_same_stripe_for_same_thread() {
+                config.bind(Counter.class, Counter.class, new StripedLiteral());
+                Context context = config.getContext();
+
+                assertSame(context.get(ComponentRef.of(Counter.class)).get(), context.get(ComponentRef.of(Counter.class)).get());
             }
-        }
 
-        static class FieldInjection implements TestComponent {
-            private Dependency dependency;
+            @Test
+            public void should_aggregate_instances_of_all_stripes() throws Exception {
+                StripedScope striped = StripedScope.of(4);
+                config.scope(Striped.class, striped);
+                config.bind(Counter.class, Counter.class, new StripedLiteral());
+                Context context = config.getContext();
 
-            @Inject
-            void install(Dependency dependency) {
-                this.dependency = dependency;
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+                try {
+                    executor.invokeAll(Collections.nCopies(64, () -> context.get(ComponentRef.of(Counter.class)).get().count.incrementAndGet()));
+                } finally {
+                    executor.shutdown();
+                }
+
+                int stripes = striped.<Counter, Integer>aggregate(new Component(Counter.class, null), List::size);
+                assertTrue(stripes > 1 && stripes <= 4, "populated stripes: " + stripes);
+                assertEquals(64, striped.<Counter, Integer>aggregate(new Component(Counter.class, null),
+                        counters -> counters.stream().mapToInt(c -> c.count.get()).sum()));
             }
 
-            public Dependency dependency() {
-                return dependency;
+            @Test
+            public void should_aggregate_instances_of_default_striped_scope() {
+                config.bind(Counter.class, Counter.class, new StripedLiteral());
+                Context context = config.getContext();
+
+                context.get(ComponentRef.of(Counter.class)).get().count.incrementAndGet();
+                context.get(ComponentRef.of(Counter.class)).get().count.incrementAndGet();
+
+                assertSame(config.stripedScope(), config.tenant().stripedScope());
+                assertEquals(2, config.stripedScope().<Counter, Integer>aggregate(new Component(Counter.class, null),
+                        counters -> counters.stream().mapToInt(c -> c.count.get()).sum()));
             }
-        }
 
-        static class MethodInjection implements TestComponent {
-            private Dependency dependency;
+            @Test
+            public void should_throw_exception_if_striped_scope_replaced_by_other_scope() {
+                config.scope(Striped.class, CacheScope.soft());
 
-            @Inject
-            public void install(Dependency dependency) {
-                this.dependency = dependency;
+                assertThrows(IllegalStateException.class, () -> config.stripedScope());
             }
 
-            public Dependency dependency() {
-                return dependency;
+            static class StripedService {
+                @Inject
+                Dependency dependency;
             }
-        }
 
-        @Test
-        public void should_retrieve_empty_for_unbind_type() {
-            Context context = config.getContext();
-            Optional<TestComponent> component = context.get(ComponentRef.of(TestComponent.class));
-            assertTrue(component.isEmpty());
-        }
+            @Test
+            public void should_aggregate_instances_of_forked_stripes() {
+                StripedScope striped = StripedScope.of(1);
+                config.scope(Striped.class, striped);
+                config.bind(Dependency.class, new Dependency() {
+                });
+                config.bind(StripedService.class, StripedService.class, new StripedLiteral());
+                ContextConfig tenant = config.tenant();
+                tenant.bind(Dependency.class, new Dependency() {
+                });
+                Context context = config.getContext();
+                Context tenantContext = tenant.getContext();
+                Component component = new Component(StripedService.class, null);
 
-        @Test
-        public void should_retrieve_bind_type_as_provider() {
-            TestComponent instance = new TestComponent() {
-            };
-            config.bind(TestComponent.class, instance);
+                StripedService base = context.get(ComponentRef.of(StripedService.class)).get();
+                StripedService forked = tenantContext.get(ComponentRef.of(StripedService.class)).get();
+                assertNotSame(base, forked);
+                assertEquals(List.of(base, forked), striped.<StripedService, List<StripedService>>aggregate(component, List::copyOf));
 
-            Context context = config.getContext();
+                tenantContext.close();
+                assertEquals(List.of(base), striped.<StripedService, List<StripedService>>aggregate(component, List::copyOf));
+            }
 
-            Provider<TestComponent> provider = context.get(new ComponentRef<Provider<TestComponent>>() {
-            }).get();
-            assertSame(instance, provider.get());
-        }
+            static class Shared {
+            }
 
-        @Test
-        public void should_not_retrieve_bind_type_as_unsupported_container() {
-            TestComponent instance = new TestComponent() {
-            };
-            config.bind(TestComponent.class, instance);
+            static class Left {
+                @Inject
+                Shared shared;
+            }
 
-            Context context = config.getContext();
+            static class Right {
+                final Shared shared;
 
-            assertFalse(context.get(new ComponentRef<List<TestComponent>>() {
-            }).isPresent());
-        }
+                @Inject
+                public Right(Shared shared) {
+                    this.shared = shared;
+                }
+            }
 
-        @Nested
-        public class WithQualifier {
-            @Test
-            public void should_bind_instance_with_multi_qualifiers() {
-                TestComponent instance = new TestComponent() {
-                };
-                config.bind(TestComponent.class, instance, new NamedLiteral("ChosenOne"), new SkywalkerLiteral());
+            static class Diamond {
+                @Inject
+                Left left;
+                @Inject
+                Right right;
+                @Inject
+                Provider<Shared> shared;
+            }
 
+            @ParameterizedTest
+            @ValueSource(ints = {0, 8})
+            public void should_build_per_resolution_dependency_once_per_graph(int compiledGraphSize) {
+                config.bind(Shared.class, Shared.class, new PerResolutionLiteral());
+                config.bind(Left.class, Left.class);
+                config.bind(Right.class, Right.class);
+                config.bind(Diamond.class, Diamond.class);
+                config.compilePrototypeGraphs(compiledGraphSize);
                 Context context = config.getContext();
 
-                TestComponent chosenOne = context.get(ComponentRef.of(TestComponent.class, new NamedLiteral("ChosenOne"))).get();
-                TestComponent skywalker = context.get(ComponentRef.of(TestComponent.class, new SkywalkerLiteral())).get();
+                Diamond first = context.get(ComponentRef.of(Diamond.class)).get();
+                Diamond second = context.handle(ComponentRef.of(Diamond.class)).get().get();
 
-                assertSame(instance, chosenOne);
-                assertSame(instance, skywalker);
+                assertSame(first.left.shared, first.right.shared);
+                assertSame(second.left.shared, second.right.shared);
+                assertNotSame(first.left.shared, second.left.shared);
             }
 
             @Test
-            public void should_bind_component_with_multi_qualifiers() {
-                Dependency dependency = new Dependency() {
-                };
-                config.bind(Dependency.class, dependency);
-                config.bind(InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, InjectionTest.ConstructorInjection.Injection.InjectConstructor.class,
-                        new NamedLiteral("ChosenOne"), new SkywalkerLiteral());
-
-                Context context = config.getContext();
-
-                InjectionTest.ConstructorInjection.Injection.InjectConstructor chosenOne = context.get(ComponentRef.of(InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, new NamedLiteral("ChosenOne"))).get();
-                InjectionTest.ConstructorInjection.Injection.InjectConstructor skywalker = context.get(ComponentRef.of(InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, new SkywalkerLiteral())).get();
-
-                assertSame(dependency, chosenOne.dependency);
-                assertSame(dependency, skywalker.dependency);
+            public void should_start_new_resolution_for_each_provider_call() {
+                config.bind(Shared.class, Shared.class, new PerResolutionLiteral());
+                config.bind(Left.class, Left.class);
+                config.bind(Right.class, Right.class);
+                config.bind(Diamond.class, Diamond.class);
+                Diamond diamond = config.getContext().get(ComponentRef.of(Diamond.class)).get();
+
+                assertNotSame(diamond.left.shared, diamond.shared.get());
+                assertNotSame(diamond.shared.get(), diamond.shared.get());
             }
 
             @Test
-            public void should_throw_exception_if_illegal_qualifier_given_to_instance() {
-                TestComponent instance = new TestComponent() {
-                };
-                assertThrows(IllegalComponentException.class, () -> config.bind(TestComponent.class, instance, new TestLiteral()));
+            public void should_not_open_resolution_without_per_resolution_bindings() {
+                config.bind(Dependency.class, new Dependency() {
+                });
+                Binding<Dependency> binding = config.getContext().handle(ComponentRef.of(Dependency.class)).get();
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                for (int i = 0; i < 10000; i++) binding.get();
+
+                long before = threads.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < 10000; i++) binding.get();
+                long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+                assertTrue(allocated < 10000, "allocated bytes: " + allocated);
             }
 
             @Test
-            public void should_throw_exception_if_illegal_qualifier_given_to_component() {
-                assertThrows(IllegalComponentException.class, () -> config.bind(InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, InjectionTest.ConstructorInjection.Injection.InjectConstructor.class, new TestLiteral()));
+            public void should_round_stripes_up_to_power_of_two() {
+                assertEquals(1, StripedScope.of(1).stripes());
+                assertEquals(8, StripedScope.of(5).stripes());
+                assertThrows(IllegalArgumentException.class, () -> StripedScope.of(0));
             }
         }
     }
@@ -418,6 +2443,84 @@ class ContextTest {
             assertTrue(context.get(ComponentRef.of(TestComponent.class)).isPresent());
         }
 
+        @Nested
+        public class Rebinding {
+            @Test
+            public void should_throw_exception_if_rebinding_introduces_cyclic_dependencies() {
+                config.bind(TestComponent.class, CyclicComponentInjectConstructor.class);
+                config.bind(Dependency.class, new Dependency() {
+                });
+                config.getContext();
+
+                config.bind(Dependency.class, CyclicDependencyInjectConstructor.class);
+
+                assertThrows(CyclicDependenciesFoundException.class, () -> config.getContext());
+            }
+
+            @Test
+            public void should_throw_exception_if_rebinding_introduces_missing_dependency() {
+                config.bind(TestComponent.class, new TestComponent() {
+                });
+                config.getContext();
+
+                config.bind(TestComponent.class, MissingDependencyConstructor.class);
+
+                DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+                assertEquals(TestComponent.class, exception.getComponent().type());
+            }
+
+            @Test
+            public void should_keep_failed_bindings_unchecked_until_fixed() {
+                config.bind(TestComponent.class, MissingDependencyConstructor.class);
+                assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+                assertThrows(DependencyNotFoundException.class, () -> config.getContext());
+
+                config.bind(Dependency.class, new Dependency() {
+                });
+
+                assertDoesNotThrow(() -> config.getContext());
+            }
+
+            @Singleton
+            static class SingletonComponent implements TestComponent {
+                private Dependency dependency;
+
+                @Inject
+                public SingletonComponent(Dependency dependency) {
+                    this.dependency = dependency;
+                }
+
+                @Override
+                public Dependency dependency() {
+                    return dependency;
+                }
+            }
+
+            @Singleton
+            static class UnrelatedSingleton implements AnotherDependency {
+            }
+
+            @Test
+            public void should_only_invalidate_cached_instances_downstream_of_rebound_component() {
+                config.bind(Dependency.class, new Dependency() {
+                });
+                config.bind(TestComponent.class, SingletonComponent.class);
+                config.bind(AnotherDependency.class, UnrelatedSingleton.class);
+                Context context = config.getContext();
+                TestComponent component = context.get(ComponentRef.of(TestComponent.class)).get();
+                AnotherDependency unrelated = context.get(ComponentRef.of(AnotherDependency.class)).get();
+
+                Dependency rebound = new Dependency() {
+                };
+                config.bind(Dependency.class, rebound);
+                context = config.getContext();
+
+                assertNotSame(component, context.get(ComponentRef.of(TestComponent.class)).get());
+                assertSame(rebound, context.get(ComponentRef.of(TestComponent.class)).get().dependency());
+                assertSame(unrelated, context.get(ComponentRef.of(AnotherDependency.class)).get());
+            }
+        }
+
         @Nested
         public class WithQualifier {
             @Test
@@ -506,6 +2609,52 @@ record SkywalkerLiteral() implements Skywalker {
     }
 }
 
+record SingletonLiteral() implements Singleton {
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Singleton.class;
+    }
+}
+
+record CachedLiteral() implements Cached {
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Cached.class;
+    }
+}
+
+record PerResolutionLiteral() implements PerResolution {
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return PerResolution.class;
+    }
+}
+
+record StripedLiteral() implements Striped {
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Striped.class;
+    }
+}
+
+@java.lang.annotation.Documented
+@java.lang.annotation.Retention(RUNTIME)
+@jakarta.inject.Scope
+@interface Pooled {
+}
+
+record PooledLiteral() implements Pooled {
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Pooled.class;
+    }
+}
+
+@java.lang.annotation.Documented
+@java.lang.annotation.Retention(RUNTIME)
+@interface Logged {
+}
+
 record TestLiteral() implements Test {
     @Override
     public Class<? extends Annotation> annotationType() {
@@ -0,0 +1,207 @@
+package geektime.tdd.di;
+
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Nested
+public class DependencyGraphTest {
+    Component component = new Component(TestComponent.class, null);
+    Component dependency = new Component(Dependency.class, null);
+    Component another = new Component(AnotherDependency.class, null);
+
+    private ContextConfig.ComponentProvider<?> dependsOn(ComponentRef<?>... dependencies) {
+        return new ContextConfig.ComponentProvider<>() {
+            @Override
+            public Object get(Context context) {
+                return null;
+            }
+
+            @Override
+            public List<ComponentRef<?>> getDependencies() {
+                return List.of(dependencies);
+            }
+        };
+    }
+
+    @Test
+    public void should_look_up_provider_by_component() {
+        ContextConfig.ComponentProvider<?> provider = dependsOn();
+        DependencyGraph graph = new DependencyGraph(Map.of(component, provider));
+
+        assertSame(provider, graph.providerOf(component));
+        assertNull(graph.providerOf(dependency));
+        assertNull(graph.providerOf(new Component(TestComponent.class, new SkywalkerLiteral())));
+    }
+
+    @Test
+    public void should_throw_exception_if_dependency_not_found() {
+        DependencyNotFoundException exception = assertThrows(DependencyNotFoundException.class,
+                () -> new DependencyGraph(Map.of(component, dependsOn(ComponentRef.of(Dependency.class)))));
+
+        assertEquals(component, exception.getComponent());
+        assertEquals(dependency, exception.getDependency());
+    }
+
+    @Test
+    public void should_throw_exception_with_components_on_cycle() {
+        DependencyGraph graph = new DependencyGraph(Map.of(
+                component, dependsOn(ComponentRef.of(Dependency.class)),
+                dependency, dependsOn(ComponentRef.of(AnotherDependency.class)),
+                another, dependsOn(ComponentRef.of(TestComponent.class))));
+
+        CyclicDependenciesFoundException exception = assertThrows(CyclicDependenciesFoundException.class, () -> graph.checkCycles(List.of(component)));
+
+        assertEquals(Set.of(TestComponent.class, Dependency.class, AnotherDependency.class), Set.of(exception.getComponents()));
+    }
+
+    @Test
+    public void should_not_throw_exception_on_cycle_via_provider() {
+        DependencyGraph graph = new DependencyGraph(Map.of(
+                component, dependsOn(ComponentRef.of(Dependency.class)),
+                dependency, dependsOn(new ComponentRef<Provider<TestComponent>>() {
+                })));
+
+        assertDoesNotThrow(() -> graph.checkCycles(List.of(component, dependency)));
+    }
+
+    @Test
+    public void should_only_check_cycles_reachable_from_roots() {
+        DependencyGraph graph = new DependencyGraph(Map.of(
+                component, dependsOn(),
+                dependency, dependsOn(ComponentRef.of(AnotherDependency.class)),
+                another, dependsOn(ComponentRef.of(Dependency.class))));
+
+        assertDoesNotThrow(() -> graph.checkCycles(List.of(component)));
+        assertThrows(CyclicDependenciesFoundException.class, () -> graph.checkCycles(List.of(dependency)));
+    }
+
+    @Test
+    public void should_count_direct_dependents() {
+        DependencyGraph graph = new DependencyGraph(Map.of(
+                component, dependsOn(ComponentRef.of(Dependency.class), new ComponentRef<Provider<AnotherDependency>>() {
+                }),
+                dependency, dependsOn(ComponentRef.of(AnotherDependency.class)),
+                another, dependsOn()));
+
+        int[] counts = graph.directDependentCounts();
+
+        assertEquals(0, counts[graph.idOf(component)]);
+        assertEquals(1, counts[graph.idOf(dependency)]);
+        assertEquals(1, counts[graph.idOf(another)]);
+    }
+
+    @Test
+    public void should_report_compact_footprint_per_binding() {
+        Map<Component, ContextConfig.ComponentProvider<?>> bindings = new ConcurrentHashMap<>();
+        for (int i = 0; i < 20000; i++)
+            bindings.put(new Component(Dependency.class, new NamedLiteral("" + i)), dependsOn(ComponentRef.of(TestComponent.class)));
+        bindings.put(component, dependsOn());
+        Set<Object> bound = Collections.newSetFromMap(new IdentityHashMap<>());
+        bound.addAll(bindings.keySet());
+        bound.addAll(bindings.values());
+        long mapBytes = new HeapEstimator(bound).retained(bindings);
+
+        DependencyGraph graph = new DependencyGraph(bindings);
+
+        assertEquals(20001, graph.size());
+        assertTrue((double) graph.bytes() / graph.size() < 32, "bytes per binding: " + (double) graph.bytes() / graph.size());
+        assertTrue(graph.bytes() < mapBytes, "graph bytes: " + graph.bytes() + ", map bytes: " + mapBytes);
+    }
+
+    @Test
+    public void should_patch_changed_bindings_and_keep_others() {
+        ContextConfig.ComponentProvider<?> leaf = dependsOn();
+        DependencyGraph graph = new DependencyGraph(Map.of(
+                component, dependsOn(ComponentRef.of(Dependency.class)),
+                dependency, leaf));
+        ContextConfig.ComponentProvider<?> rebound = dependsOn(ComponentRef.of(AnotherDependency.class));
+        ContextConfig.ComponentProvider<?> added = dependsOn();
+
+        DependencyGraph patched = graph.patch(Map.of(component, graph.providerOf(component), dependency, rebound, another, added),
+                List.of(dependency, another));
+
+        assertEquals(3, patched.size());
+        assertSame(rebound, patched.providerOf(dependency));
+        assertSame(added, patched.providerOf(another));
+        assertEquals(graph.idOf(component), patched.idOf(component));
+        assertSame(leaf, graph.providerOf(dependency));
+        List<Component> dependencies = new ArrayList<>();
+        patched.forEachDirectDependency(patched.idOf(dependency), id -> dependencies.add(patched.component(id)));
+        assertEquals(List.of(another), dependencies);
+        assertSame(graph, graph.patch(Map.of(), List.of()));
+    }
+
+    @Test
+    public void should_throw_exception_if_patched_dependency_not_found() {
+        DependencyGraph graph = new DependencyGraph(Map.of(component, dependsOn()));
+
+        assertThrows(DependencyNotFoundException.class, () -> graph.patch(
+                Map.of(dependency, dependsOn(ComponentRef.of(AnotherDependency.class))), List.of(dependency)));
+    }
+
+    @Test
+    public void should_collect_transitive_dependents() {
+        DependencyGraph graph = new DependencyGraph(Map.of(
+                component, dependsOn(ComponentRef.of(Dependency.class)),
+                dependency, dependsOn(new ComponentRef<Provider<AnotherDependency>>() {
+                }),
+                another, dependsOn()));
+        Set<Component> dependents = new HashSet<>();
+
+        graph.collectDependents(List.of(another), dependents);
+
+        assertEquals(Set.of(component, dependency), dependents);
+    }
+
+    @Test
+    public void should_ignore_external_dependencies_in_internal_graph() {
+        DependencyGraph graph = DependencyGraph.internal(Map.of(
+                component, dependsOn(ComponentRef.of(Dependency.class), ComponentRef.of(AnotherDependency.class)),
+                dependency, dependsOn()));
+
+        List<Component> dependencies = new ArrayList<>();
+        graph.forEachDirectDependency(graph.idOf(component), id -> dependencies.add(graph.component(id)));
+        assertEquals(List.of(dependency), dependencies);
+    }
+
+    private ContextConfig.ComponentProvider<?> closing(List<Component> closed, Component self, ComponentRef<?>... dependencies) {
+        return new ContextConfig.ComponentProvider<>() {
+            @Override
+            public Object get(Context context) {
+                return null;
+            }
+
+            @Override
+            public List<ComponentRef<?>> getDependencies() {
+                return List.of(dependencies);
+            }
+
+            @Override
+            public void close() {
+                closed.add(self);
+                if (self.equals(dependency)) throw new IllegalStateException();
+            }
+        };
+    }
+
+    @Test
+    public void should_close_owned_providers_in_reverse_dependency_order() {
+        List<Component> closed = Collections.synchronizedList(new ArrayList<>());
+        DependencyGraph graph = new DependencyGraph(Map.of(
+                component, closing(closed, component, ComponentRef.of(Dependency.class)),
+                dependency, closing(closed, dependency, ComponentRef.of(AnotherDependency.class)),
+                another, closing(closed, another)));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> graph.closeInReverseDependencyOrder(Runnable::run, closing -> !closing.equals(component)));
+
+        assertEquals(List.of(dependency, another), closed);
+        assertEquals(1, exception.getSuppressed().length);
+    }
+}
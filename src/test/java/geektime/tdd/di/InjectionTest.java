@@ -1,5 +1,7 @@
 package geektime.tdd.di;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Provider;
@@ -9,6 +11,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -472,4 +476,76 @@ public class InjectionTest {
             }
         }
     }
+
+    @Nested
+    public class LifecycleCallbacks {
+        static class SuperClassWithCallbacks {
+            List<String> events = new ArrayList<>();
+
+            @PostConstruct
+            void setupSuper() {
+                events.add("super constructed");
+            }
+
+            @PreDestroy
+            void teardownSuper() {
+                events.add("super destroyed");
+            }
+        }
+
+        static class ComponentWithCallbacks extends SuperClassWithCallbacks {
+            @Inject
+            Dependency dependency;
+
+            @PostConstruct
+            private void setup() {
+                events.add(dependency == null ? "constructed before injection" : "constructed");
+            }
+
+            @PreDestroy
+            private void teardown() {
+                events.add("destroyed");
+            }
+        }
+
+        @Test
+        public void should_call_post_construct_after_injection_from_superclass_first() {
+            ComponentWithCallbacks component = new InjectionProvider<>(ComponentWithCallbacks.class).get(context);
+            assertEquals(List.of("super constructed", "constructed"), component.events);
+        }
+
+        @Test
+        public void should_call_pre_destroy_from_subclass_first() {
+            InjectionProvider<ComponentWithCallbacks> provider = new InjectionProvider<>(ComponentWithCallbacks.class);
+            ComponentWithCallbacks component = provider.get(context);
+            component.events.clear();
+
+            provider.destroy(component);
+
+            assertEquals(List.of("destroyed", "super destroyed"), component.events);
+        }
+
+        static class SubclassOverrideCallbackWithNoAnnotation extends SuperClassWithCallbacks {
+            @Override
+            void setupSuper() {
+            }
+        }
+
+        @Test
+        public void should_not_call_callback_if_override_without_annotation() {
+            SubclassOverrideCallbackWithNoAnnotation component = new InjectionProvider<>(SubclassOverrideCallbackWithNoAnnotation.class).get(context);
+            assertTrue(component.events.isEmpty());
+        }
+
+        static class CallbackWithParameter {
+            @PostConstruct
+            void setup(Dependency dependency) {
+            }
+        }
+
+        @Test
+        public void should_throw_exception_if_callback_has_parameter() {
+            assertThrows(IllegalComponentException.class, () -> new InjectionProvider<>(CallbackWithParameter.class));
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package geektime.tdd.di;
+
+import junit.framework.TestCase;
+import junit.framework.TestResult;
+import junit.framework.TestSuite;
+import org.atinject.tck.Tck;
+import org.atinject.tck.auto.*;
+import org.atinject.tck.auto.accessories.Cupholder;
+import org.atinject.tck.auto.accessories.SpareTire;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TckTest {
+    static ContextConfig car() {
+        ContextConfig config = new ContextConfig();
+        config.bind(Car.class, Convertible.class);
+        config.bind(Seat.class, Seat.class);
+        config.bind(Seat.class, DriversSeat.class, new DriversLiteral());
+        config.bind(Tire.class, Tire.class);
+        config.bind(Tire.class, SpareTire.class, new NamedLiteral("spare"));
+        config.bind(Engine.class, V8Engine.class);
+        config.bind(SpareTire.class, SpareTire.class);
+        config.bind(Cupholder.class, Cupholder.class);
+        config.bind(FuelTank.class, FuelTank.class);
+        config.bind(Seatbelt.class, Seatbelt.class);
+        return config;
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> should_conform_to_jakarta_inject_tck() {
+        return conformance(car());
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> should_conform_to_jakarta_inject_tck_with_compiled_graphs() {
+        ContextConfig config = car();
+        config.compilePrototypeGraphs(64);
+        return conformance(config);
+    }
+
+    private static Stream<DynamicTest> conformance(ContextConfig config) {
+        Car car = config.getContext().get(ComponentRef.of(Car.class)).get();
+        List<TestCase> tests = new ArrayList<>();
+        collect((junit.framework.Test) Tck.testsFor(car, false, true), tests);
+        return tests.stream().map(test -> DynamicTest.dynamicTest(test.getClass().getSimpleName() + "." + test.getName(), () -> {
+            TestResult result = new TestResult();
+            test.run(result);
+            List<String> problems = new ArrayList<>();
+            Collections.list(result.failures()).forEach(failure -> problems.add(failure.toString()));
+            Collections.list(result.errors()).forEach(error -> problems.add(error.toString()));
+            assertTrue(problems.isEmpty(), String.join("\n", problems));
+        }));
+    }
+
+    private static void collect(junit.framework.Test test, List<TestCase> tests) {
+        if (test instanceof TestSuite suite)
+            Collections.list(suite.tests()).forEach(t -> collect(t, tests));
+        else
+            tests.add((TestCase) test);
+    }
+}
+
+record DriversLiteral() implements Drivers {
+    @Override
+    public Class<? extends Annotation> annotationType() {
+        return Drivers.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Drivers;
+    }
+}